@@ -43,5 +43,12 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Streaming responses (the admin SSE feed) finish on an async dispatch,
+    // which is authorized again and so needs the key checked again
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 }
 
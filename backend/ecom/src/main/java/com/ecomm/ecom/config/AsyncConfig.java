@@ -0,0 +1,110 @@
+package com.ecomm.ecom.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    private final Environment environment;
+
+    public AsyncConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Boot's own applicationTaskExecutor, which it skips once the executors
+     * below exist. Plain @Async methods, async MVC requests and lazy JPA
+     * repository bootstrap run here; on virtual threads when those are on,
+     * otherwise on the pool configured by spring.task.execution.*.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder threadPoolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder virtualThreadBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadBuilder.build();
+        }
+        return threadPoolBuilder.build();
+    }
+
+    /**
+     * Runs CSV product imports. Deliberately small and bounded: each import holds
+     * a DB connection for its whole run, and a full queue is reported to the
+     * client instead of piling up work.
+     */
+    @Bean(name = "productImportExecutor")
+    public ThreadPoolTaskExecutor productImportExecutor(
+            @Value("${app.import.max-concurrent-jobs:1}") int maxConcurrentJobs,
+            @Value("${app.import.queue-capacity:4}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentJobs);
+        executor.setMaxPoolSize(maxConcurrentJobs);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-import-");
+        useVirtualThreads(executor);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Delivers events to the admin SSE feed. A single thread keeps events in
+     * commit order and keeps writes to slow subscribers off request threads.
+     */
+    @Bean(name = "inquiryFeedExecutor")
+    public ThreadPoolTaskExecutor inquiryFeedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("inquiry-feed-");
+        useVirtualThreads(executor);
+        return executor;
+    }
+
+    /**
+     * Writes queued events to admin SSE subscribers, each subscriber's in order
+     * (see InquiryFeed). A few threads are enough: a subscriber whose write
+     * stalls is disconnected, so it only ties up one of them for a while.
+     */
+    @Bean(name = "inquiryFeedSendExecutor")
+    public ThreadPoolTaskExecutor inquiryFeedSendExecutor(
+            @Value("${app.contact.feed.sender-threads:4}") int senderThreads,
+            @Value("${app.contact.feed.max-subscribers:200}") int maxSubscribers) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senderThreads);
+        executor.setMaxPoolSize(senderThreads);
+        executor.setQueueCapacity(maxSubscribers); // at most one pending drain per subscriber
+        executor.setThreadNamePrefix("inquiry-feed-send-");
+        useVirtualThreads(executor);
+        return executor;
+    }
+
+    /**
+     * With spring.threads.virtual.enabled on Java 21+, Boot moves Tomcat and
+     * the scheduler to virtual threads, and applicationTaskExecutor above
+     * follows; these pools do too. Their sizes and queues stay as configured,
+     * so the limits above still hold.
+     */
+    private void useVirtualThreads(ThreadPoolTaskExecutor executor) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(
+                    new VirtualThreadTaskExecutor(executor.getThreadNamePrefix()).getVirtualThreadFactory());
+        }
+    }
+}
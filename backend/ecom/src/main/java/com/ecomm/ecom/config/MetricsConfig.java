@@ -0,0 +1,28 @@
+package com.ecomm.ecom.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics are served at /actuator/prometheus (ADMIN only). Route latency and
+ * Hikari pool timings come from Spring Boot; histogram buckets for them are
+ * set in application.properties. The app's own meters are registered where
+ * the work happens.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Static so the post-processor is registered without creating this configuration early
+    @Bean
+    public static BeanPostProcessor statementCounting() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? StatementCountFilter.counting(dataSource) : bean;
+            }
+        };
+    }
+}
@@ -34,6 +34,8 @@ public class SecurityConfig {
                 config.addAllowedOriginPattern("http://localhost:3000");
                 config.addAllowedMethod("*");
                 config.addAllowedHeader("*");
+                config.addExposedHeader("X-Catalog-Seq"); // delta-sync starting point
+                config.addExposedHeader("Idempotent-Replayed");
                 config.setAllowCredentials(true);
                 return config;
             }))
@@ -45,10 +47,16 @@ public class SecurityConfig {
                 // ── Public endpoints ──────────────────────────────────────
                 .requestMatchers(HttpMethod.GET,  "/health").permitAll()
                 .requestMatchers(HttpMethod.GET,  "/api/products").permitAll()
+                .requestMatchers(HttpMethod.GET,  "/api/products/page").permitAll()
+                .requestMatchers(HttpMethod.GET,  "/api/products/facets").permitAll()
+                .requestMatchers(HttpMethod.GET,  "/api/products/search").permitAll()
+                .requestMatchers(HttpMethod.GET,  "/api/products/changes").permitAll()
+                .requestMatchers(HttpMethod.GET,  "/api/products/export").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.GET,  "/api/products/{id}").permitAll()
                 .requestMatchers(HttpMethod.POST, "/contact").permitAll()
                 .requestMatchers(HttpMethod.GET,  "/contact/track/**").permitAll()
                 // ── Admin / write endpoints require ADMIN role ────────────
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().hasRole("ADMIN")
             )
             // Inject API-key filter before the default username/password filter
@@ -0,0 +1,102 @@
+package com.ecomm.ecom.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.ValidateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Fast-startup mode (profile fast-start), for instances that scale to zero.
+ * Beans are created lazily and Hibernate boots on its own thread, so the port
+ * opens before the persistence layer and the caches are up; requests that
+ * need the database wait for it. Once the app is ready, every bean still
+ * missing is created here, so later requests don't pay for it. Migrations
+ * still run before the port opens, but their checksums are validated
+ * afterwards, off the startup path.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+
+    private final boolean lazyInitialization;
+    private final boolean backgroundJpa;
+    private final boolean validatedOnMigrate;
+    private final ObjectProvider<Flyway> flyway;
+
+    public StartupConfig(@Value("${spring.main.lazy-initialization:false}") boolean lazyInitialization,
+                         @Value("${app.startup.background-jpa:false}") boolean backgroundJpa,
+                         @Value("${spring.flyway.validate-on-migrate:true}") boolean validatedOnMigrate,
+                         ObjectProvider<Flyway> flyway) {
+        this.lazyInitialization = lazyInitialization;
+        this.backgroundJpa = backgroundJpa;
+        this.validatedOnMigrate = validatedOnMigrate;
+        this.flyway = flyway;
+    }
+
+    /**
+     * The EntityManagerFactory is created during startup even with lazy
+     * initialization (it takes part in load-time weaving); with a bootstrap
+     * executor it returns at once and Hibernate builds the metamodel in the
+     * background. Spring Boot does the same with applicationTaskExecutor
+     * (AsyncConfig) for lazy repository bootstrap; this uses that executor
+     * too, whatever the repository bootstrap mode.
+     */
+    @Bean
+    public EntityManagerFactoryBuilderCustomizer backgroundJpaBootstrap(
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+            ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor) {
+        return builder -> {
+            if (backgroundJpa) {
+                builder.setBootstrapExecutor(applicationTaskExecutor.getObject());
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void finishStartup(ApplicationReadyEvent event) {
+        if (lazyInitialization) {
+            long started = System.currentTimeMillis();
+            ConfigurableListableBeanFactory beanFactory = event.getApplicationContext().getBeanFactory();
+            int created = 0;
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getMergedBeanDefinition(name);
+                if (definition.isSingleton() && !definition.isAbstract() && !beanFactory.containsSingleton(name)) {
+                    beanFactory.getBean(name);
+                    created++;
+                }
+            }
+            log.info("Created {} deferred beans in {} ms", created, System.currentTimeMillis() - started);
+        }
+
+        Flyway migrations = flyway.getIfAvailable();
+        if (!validatedOnMigrate && migrations != null) {
+            Thread validation = new Thread(() -> validate(migrations), "flyway-validate");
+            validation.setDaemon(true);
+            validation.start();
+        }
+    }
+
+    // Same check validate-on-migrate makes, but the app is already serving:
+    // a mismatch is reported, not fatal
+    private static void validate(Flyway flyway) {
+        ValidateResult result = flyway.validateWithResult();
+        if (result.validationSuccessful) {
+            log.info("Validated {} migrations", flyway.info().applied().length);
+        } else {
+            log.error("Migration validation failed: {}", result.getAllErrorMessages());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecomm.ecom.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the SQL statements executed while serving each request and records
+ * them per route as jdbc.statements.per.request, so N+1 queries show up in the
+ * metrics rather than in show-sql output.
+ *
+ * Counting happens on the connections of the application DataSource (wrapped
+ * by MetricsConfig), so JPA and JdbcTemplate work are both seen. A JDBC batch
+ * is one execution however many rows it carries. The count lives in a thread
+ * local; statements run off the request thread (async writers, scheduled
+ * jobs) are not attributed to any request.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    // Upper bounds; requests with no statements land in the first bucket
+    private static final double[] BUCKETS = {1, 2, 3, 5, 10, 20, 50, 100};
+
+    private static final ThreadLocal<int[]> statements = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public StatementCountFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Wraps a DataSource so statements executed on its connections are counted. */
+    public static DataSource counting(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return (Connection) counting(Connection.class, super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return (Connection) counting(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+
+    // Connections hand out counting statements; statements count their execute* calls
+    private static Object counting(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                int[] count = statements.get();
+                if (count != null) {
+                    count[0]++;
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (target instanceof Connection && result instanceof Statement) {
+                return counting(method.getReturnType(), result);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        int[] count = new int[1];
+        statements.set(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements.remove();
+            // Only requests that reached a controller; the route keeps the tag bounded
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                summary(request.getMethod(), route.toString()).record(count[0]);
+            }
+        }
+    }
+
+    private DistributionSummary summary(String method, String route) {
+        return summaries.computeIfAbsent(method + " " + route, key ->
+                DistributionSummary.builder("jdbc.statements.per.request")
+                        .description("SQL statements executed per request, JPA and JdbcTemplate alike")
+                        .tag("method", method)
+                        .tag("uri", route)
+                        .serviceLevelObjectives(BUCKETS)
+                        .register(registry));
+    }
+}
@@ -1,60 +1,113 @@
 package com.ecomm.ecom.controller;
 
+import com.ecomm.ecom.dto.BulkInquiryRequest;
+import com.ecomm.ecom.dto.BulkUpdateResult;
 import com.ecomm.ecom.dto.ContactRequest;
+import com.ecomm.ecom.dto.InquiryPage;
 import com.ecomm.ecom.model.ContactMessage;
+import com.ecomm.ecom.service.ContactIngestionService;
 import com.ecomm.ecom.service.ContactService;
-import com.ecomm.ecom.service.EmailService;
+import com.ecomm.ecom.service.CsvExporter;
+import com.ecomm.ecom.service.IdempotencyStore;
+import com.ecomm.ecom.service.InquiryAnalyticsService;
+import com.ecomm.ecom.service.InquiryFeed;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/contact")
 public class ContactController {
 
-    private final EmailService emailService;
+    private final ContactIngestionService ingestionService;
     private final ContactService contactService;
-
-    public ContactController(EmailService emailService,
-                             ContactService contactService) {
-        this.emailService = emailService;
+    private final InquiryFeed inquiryFeed;
+    private final InquiryAnalyticsService analyticsService;
+    private final CsvExporter csvExporter;
+    private final IdempotencyStore idempotencyStore;
+
+    public ContactController(ContactIngestionService ingestionService,
+                             ContactService contactService,
+                             InquiryFeed inquiryFeed,
+                             InquiryAnalyticsService analyticsService,
+                             CsvExporter csvExporter,
+                             IdempotencyStore idempotencyStore) {
+        this.ingestionService = ingestionService;
         this.contactService = contactService;
+        this.inquiryFeed = inquiryFeed;
+        this.analyticsService = analyticsService;
+        this.csvExporter = csvExporter;
+        this.idempotencyStore = idempotencyStore;
     }
 
-    // 🔹 Public: Send Inquiry
+    // 🔹 Public: Send Inquiry. A retry with the same Idempotency-Key (or, without
+    // one, the same content shortly after) gets the original response back.
     @PostMapping
-    public ResponseEntity<?> sendContact(@Valid @RequestBody ContactRequest request) {
-
-        ContactMessage savedMessage = emailService.sendContactMail(
-                request.getName(),
-                request.getEmail(),
-                request.getPhone(),
-                request.getMessage(),
-                request.getProductIds()
-        );
-
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "referenceCode", savedMessage.getReferenceCode(),
-                "messageId", savedMessage.getId()
-        ));
+    public ResponseEntity<?> sendContact(
+            @Valid @RequestBody ContactRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+
+        if (idempotencyKey != null && idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Idempotency-Key is too long"
+            ));
+        }
+
+        IdempotencyStore.Outcome outcome = idempotencyStore.execute(idempotencyKey, request, () ->
+                ingestionService.submit(
+                        request.getName(),
+                        request.getEmail(),
+                        request.getPhone(),
+                        request.getMessage(),
+                        request.getProductIds()
+                ));
+        IdempotencyStore.Receipt receipt = outcome.getReceipt();
+
+        // Write-behind mode: accepted and journaled, written to the database shortly
+        if (receipt.getMessageId() == null) {
+            return ResponseEntity.accepted()
+                    .header("Idempotent-Replayed", String.valueOf(outcome.isReplayed()))
+                    .body(Map.of(
+                            "success", true,
+                            "referenceCode", receipt.getReferenceCode(),
+                            "queued", true
+                    ));
+        }
+
+        return ResponseEntity.ok()
+                .header("Idempotent-Replayed", String.valueOf(outcome.isReplayed()))
+                .body(Map.of(
+                        "success", true,
+                        "referenceCode", receipt.getReferenceCode(),
+                        "messageId", receipt.getMessageId()
+                ));
     }
 
     // 🔹 Public: Track Inquiry
     @GetMapping("/track/{referenceCode}")
     public ResponseEntity<?> trackInquiry(@PathVariable String referenceCode) {
 
-        ContactMessage msg = contactService.findByReferenceCode(referenceCode);
+        ContactMessage msg = contactService.track(referenceCode);
 
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "referenceCode", msg.getReferenceCode(),
                 "status", msg.getStatus(),
                 "createdAt", msg.getCreatedAt(),
-                "productNames", msg.getProductNames(),
+                "productNames", msg.getProductNames() != null ? msg.getProductNames() : "",
                 "message", msg.getMessage()
         ));
     }
@@ -65,6 +118,79 @@ public class ContactController {
         return contactService.getAll();
     }
 
+    // 🔹 Admin: Paged inbox (list fields only; open one inquiry for the full message)
+    @GetMapping("/admin/inbox")
+    public ResponseEntity<?> getInbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Boolean read,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        InquiryPage page;
+        try {
+            page = contactService.getInbox(cursor, limit, status, read, from, to);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Invalid cursor"
+            ));
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    // 🔹 Admin: CSV export, oldest first (same filters as the inbox)
+    @GetMapping("/admin/export")
+    public void exportCsv(
+            HttpServletResponse response,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Boolean read,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to)
+            throws IOException {
+
+        csvExporter.exportInquiries(response,
+                status == null || status.isBlank() ? null : status.trim().toUpperCase(Locale.ROOT),
+                read, from, to);
+    }
+
+    // 🔹 Admin: Most requested products, brands and categories (default: last 30 days)
+    @GetMapping("/admin/analytics")
+    public ResponseEntity<?> getAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+
+        try {
+            return ResponseEntity.ok(analyticsService.getMostRequested(from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    // 🔹 Admin: Live feed (SSE). Sends "unread" on connect, then an "inquiry"
+    // event per new inquiry or status/read change. Needs the X-API-KEY header,
+    // so browsers read it with fetch() rather than EventSource.
+    @GetMapping(value = "/admin/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> feed() throws IOException {
+        SseEmitter emitter = inquiryFeed.subscribe();
+        if (emitter == null) {
+            // Too many subscribers; clients retry later
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    // 🔹 Admin: Single inquiry with message and products
+    @GetMapping("/admin/{referenceCode}")
+    public ContactMessage getInquiry(@PathVariable String referenceCode) {
+        return contactService.findByReferenceCode(referenceCode);
+    }
+
     // 🔹 Admin: Unread
     @GetMapping("/admin/unread")
     public List<ContactMessage> getUnread() {
@@ -77,7 +203,11 @@ public class ContactController {
             @PathVariable String referenceCode,
             @RequestBody Map<String, String> body) {
 
-        contactService.updateStatus(referenceCode, body.get("status"));
+        try {
+            contactService.updateStatus(referenceCode, body.get("status"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
 
         return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -94,4 +224,32 @@ public class ContactController {
 
         return ResponseEntity.ok(Map.of("success", true));
     }
-}
\ No newline at end of file
+
+    // 🔹 Admin: Bulk status update, by referenceCodes or by filter ("where")
+    @PutMapping("/admin/bulk/status")
+    public ResponseEntity<?> bulkUpdateStatus(@Valid @RequestBody BulkInquiryRequest request) {
+        try {
+            return bulkResponse(contactService.bulkUpdateStatus(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    // 🔹 Admin: Bulk mark as read
+    @PutMapping("/admin/bulk/read")
+    public ResponseEntity<?> bulkMarkAsRead(@Valid @RequestBody BulkInquiryRequest request) {
+        try {
+            return bulkResponse(contactService.bulkMarkAsRead(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    private static ResponseEntity<?> bulkResponse(BulkUpdateResult result) {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "updated", result.getUpdated(),
+                "markedRead", result.getMarkedRead()
+        ));
+    }
+}
@@ -1,22 +1,43 @@
 package com.ecomm.ecom.controller;
 
+import com.ecomm.ecom.dto.ProductChanges;
+import com.ecomm.ecom.dto.ProductLookup;
+import com.ecomm.ecom.dto.ProductPage;
 import com.ecomm.ecom.model.Product;
+import com.ecomm.ecom.service.CsvExporter;
+import com.ecomm.ecom.service.ProductCatalog;
+import com.ecomm.ecom.service.ProductImportJob;
+import com.ecomm.ecom.service.ProductImportService;
 import com.ecomm.ecom.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService service;
+    private final ProductImportService importService;
+    private final CsvExporter csvExporter;
 
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service,
+                             ProductImportService importService,
+                             CsvExporter csvExporter) {
         this.service = service;
+        this.importService = importService;
+        this.csvExporter = csvExporter;
     }
 
     @PostMapping
@@ -24,14 +45,88 @@ public class ProductController {
         return service.create(product);
     }
 
+    // Browsers must revalidate every time; a matching If-None-Match is answered
+    // with 304 by Spring from the ETag below without touching the repository.
+    private static final CacheControl CATALOG_CACHE = CacheControl.noCache();
+
+    // Starting point for GET /changes?since= after a full catalog download
+    private static final String CATALOG_SEQ_HEADER = "X-Catalog-Seq";
+
     @GetMapping
-    public List<Product> getAll() {
-        return service.getAll();
+    public ResponseEntity<byte[]> getAll() {
+        // Served from the pre-serialized catalog snapshot: no DB round trip, no Jackson pass
+        ProductCatalog.Snapshot catalog = service.getCatalog();
+        return ResponseEntity.ok()
+                .cacheControl(CATALOG_CACHE)
+                .eTag(catalog.getETag())
+                .lastModified(catalog.getLastModified())
+                .header(CATALOG_SEQ_HEADER, Long.toString(catalog.getChangeSeq()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.getJson());
+    }
+
+    // Bulk lookup (e.g. the quote cart): GET /api/products?ids=1,2,3
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getByIds(@RequestParam List<Integer> ids) {
+
+        if (ids.size() > ProductService.MAX_LOOKUP_IDS) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "At most " + ProductService.MAX_LOOKUP_IDS + " ids per request"
+            ));
+        }
+
+        ProductCatalog.Snapshot catalog = service.getCatalog();
+        ProductLookup lookup = service.getByIds(catalog, ids);
+        return ResponseEntity.ok()
+                .cacheControl(CATALOG_CACHE)
+                .eTag(catalog.getETag())
+                .lastModified(catalog.getLastModified())
+                .body(lookup);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<byte[]> getFacets() {
+        ProductCatalog.Snapshot catalog = service.getCatalog();
+        return ResponseEntity.ok()
+                .cacheControl(CATALOG_CACHE)
+                .eTag(catalog.getETag())
+                .lastModified(catalog.getLastModified())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.getFacetsJson());
+    }
+
+    // category is the normalized key reported by /facets (e.g. "fans")
+    @GetMapping("/page")
+    public ProductPage getPage(@RequestParam(required = false) Integer cursor,
+                               @RequestParam(required = false) Integer limit,
+                               @RequestParam(required = false) String category,
+                               @RequestParam(required = false) String brand) {
+        return service.getPage(cursor, limit, category, brand);
+    }
+
+    @GetMapping("/search")
+    public ProductPage search(@RequestParam("q") String q,
+                              @RequestParam(required = false) Integer cursor,
+                              @RequestParam(required = false) Integer limit) {
+        return service.search(q, cursor, limit);
+    }
+
+    // Delta sync: ids changed or deleted since a change sequence number
+    @GetMapping("/changes")
+    public ProductChanges getChanges(@RequestParam(defaultValue = "0") long since,
+                                     @RequestParam(required = false) Integer limit) {
+        return service.getChanges(since, limit);
     }
 
     @GetMapping("/{id}")
-    public Product getById(@PathVariable int id) {
-        return service.getById(id);
+    public ResponseEntity<Product> getById(@PathVariable int id) {
+        ProductCatalog.Snapshot catalog = service.getCatalog();
+        return ResponseEntity.ok()
+                .cacheControl(CATALOG_CACHE)
+                .eTag(catalog.getETag())
+                .lastModified(catalog.getLastModified())
+                .body(service.getById(catalog, id));
     }
 
     @PutMapping("/{id}")
@@ -50,10 +145,46 @@ public class ProductController {
     // ===============================
 
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadCsv(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(defaultValue = "insert") String mode) throws IOException {
+
+        ProductImportJob.Mode importMode;
+        try {
+            importMode = ProductImportJob.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "mode must be 'insert' or 'upsert'"
+            ));
+        }
 
-        service.uploadProductsFromCsv(file);
+        ProductImportJob job;
+        try {
+            job = importService.submit(file, importMode);
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                    "success", false,
+                    "message", "Import queue is full, please retry later"
+            ));
+        }
+
+        return ResponseEntity.accepted().body(Map.of(
+                "success", true,
+                "jobId", job.getId(),
+                "mode", importMode,
+                "statusUrl", "/api/products/upload/" + job.getId()
+        ));
+    }
+
+    @GetMapping("/upload/{jobId}")
+    public ResponseEntity<ProductImportJob> getUploadStatus(@PathVariable String jobId) {
+        ProductImportJob job = importService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
 
-        return ResponseEntity.ok("CSV uploaded successfully!");
+    // Same columns the importer reads (plus id and categoryKey), so it can be re-uploaded with mode=upsert
+    @GetMapping("/export")
+    public void exportCsv(HttpServletResponse response) throws IOException {
+        csvExporter.exportProducts(response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.ecomm.ecom.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Body of the bulk admin updates. Selects inquiries either by reference code
+ * or by a filter, never both, e.g.
+ * {"status": "CLOSED", "where": {"status": "PENDING", "olderThanDays": 30}}
+ */
+public class BulkInquiryRequest {
+
+    @Size(max = 1000)
+    private List<String> referenceCodes;
+
+    @Valid
+    private Filter where;
+
+    @Size(max = 20)
+    private String status; // New status (status updates only)
+
+    public List<String> getReferenceCodes() {
+        return referenceCodes;
+    }
+
+    public void setReferenceCodes(List<String> referenceCodes) {
+        this.referenceCodes = referenceCodes;
+    }
+
+    public Filter getWhere() {
+        return where;
+    }
+
+    public void setWhere(Filter where) {
+        this.where = where;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public static class Filter {
+
+        @Size(max = 20)
+        private String status; // Current status
+
+        private Boolean read;
+
+        @Min(1)
+        private Integer olderThanDays;
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public Boolean getRead() {
+            return read;
+        }
+
+        public void setRead(Boolean read) {
+            this.read = read;
+        }
+
+        public Integer getOlderThanDays() {
+            return olderThanDays;
+        }
+
+        public void setOlderThanDays(Integer olderThanDays) {
+            this.olderThanDays = olderThanDays;
+        }
+    }
+}
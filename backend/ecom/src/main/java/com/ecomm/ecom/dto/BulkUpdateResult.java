@@ -0,0 +1,21 @@
+package com.ecomm.ecom.dto;
+
+public class BulkUpdateResult {
+
+    private final int updated;
+
+    private final int markedRead; // previously unread inquiries among the updated ones
+
+    public BulkUpdateResult(int updated, int markedRead) {
+        this.updated = updated;
+        this.markedRead = markedRead;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getMarkedRead() {
+        return markedRead;
+    }
+}
@@ -2,22 +2,27 @@ package com.ecomm.ecom.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
 public class ContactRequest {
     @NotBlank
+    @Size(max = 255)
     private String name;
 
     @Email
     @NotBlank
+    @Size(max = 255)
     private String email;
 
+    @Size(max = 20)
     private String phone;
 
     @NotBlank
     private String message;
 
-    private List<Integer> productIds; // List of product IDs for quote request
+    private List<@NotNull Integer> productIds; // List of product IDs for quote request
 
     public String getName() {
         return name;
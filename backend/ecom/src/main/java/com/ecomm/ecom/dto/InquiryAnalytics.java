@@ -0,0 +1,46 @@
+package com.ecomm.ecom.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class InquiryAnalytics {
+
+    private final LocalDate from; // inclusive
+
+    private final LocalDate to;   // inclusive
+
+    private final List<ProductRequestCount> products;
+
+    private final List<RequestCount> brands;
+
+    private final List<RequestCount> categories;
+
+    public InquiryAnalytics(LocalDate from, LocalDate to, List<ProductRequestCount> products,
+                            List<RequestCount> brands, List<RequestCount> categories) {
+        this.from = from;
+        this.to = to;
+        this.products = products;
+        this.brands = brands;
+        this.categories = categories;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public List<ProductRequestCount> getProducts() {
+        return products;
+    }
+
+    public List<RequestCount> getBrands() {
+        return brands;
+    }
+
+    public List<RequestCount> getCategories() {
+        return categories;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecomm.ecom.dto;
+
+import java.util.List;
+
+public class InquiryPage {
+
+    private final List<InquirySummary> items;
+
+    private final String nextCursor; // null when this is the last page
+
+    public InquiryPage(List<InquirySummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<InquirySummary> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
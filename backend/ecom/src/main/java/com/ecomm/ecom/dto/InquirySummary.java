@@ -0,0 +1,66 @@
+package com.ecomm.ecom.dto;
+
+import java.time.LocalDateTime;
+
+// Inbox row: everything but the message body and product names
+public class InquirySummary {
+
+    private final Long id;
+    private final String referenceCode;
+    private final String name;
+    private final String email;
+    private final String phone;
+    private final String productIds;
+    private final String status;
+    private final boolean read;
+    private final LocalDateTime createdAt;
+
+    public InquirySummary(Long id, String referenceCode, String name, String email, String phone,
+                          String productIds, String status, boolean read, LocalDateTime createdAt) {
+        this.id = id;
+        this.referenceCode = referenceCode;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.productIds = productIds;
+        this.status = status;
+        this.read = read;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getReferenceCode() {
+        return referenceCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getProductIds() {
+        return productIds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecomm.ecom.dto;
+
+import java.util.List;
+
+public class ProductChanges {
+
+    private final List<Integer> changed; // created or updated, fetch them by id
+
+    private final List<Integer> deleted;
+
+    private final long next; // pass as ?since= on the next poll
+
+    private final boolean hasMore; // true when the limit cut this batch short
+
+    public ProductChanges(List<Integer> changed, List<Integer> deleted, long next, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.next = next;
+        this.hasMore = hasMore;
+    }
+
+    public List<Integer> getChanged() {
+        return changed;
+    }
+
+    public List<Integer> getDeleted() {
+        return deleted;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
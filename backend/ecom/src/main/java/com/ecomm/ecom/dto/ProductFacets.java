@@ -0,0 +1,23 @@
+package com.ecomm.ecom.dto;
+
+import java.util.Map;
+
+public class ProductFacets {
+
+    private final Map<String, Long> categories; // category key -> product count, storefront order
+
+    private final Map<String, Long> brands; // brand -> product count, alphabetical
+
+    public ProductFacets(Map<String, Long> categories, Map<String, Long> brands) {
+        this.categories = categories;
+        this.brands = brands;
+    }
+
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public Map<String, Long> getBrands() {
+        return brands;
+    }
+}
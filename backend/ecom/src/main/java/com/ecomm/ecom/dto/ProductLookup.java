@@ -0,0 +1,24 @@
+package com.ecomm.ecom.dto;
+
+import com.ecomm.ecom.model.Product;
+import java.util.List;
+
+public class ProductLookup {
+
+    private final List<Product> items; // in the order the ids were requested
+
+    private final List<Integer> missing; // requested ids that do not exist
+
+    public ProductLookup(List<Product> items, List<Integer> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public List<Integer> getMissing() {
+        return missing;
+    }
+}
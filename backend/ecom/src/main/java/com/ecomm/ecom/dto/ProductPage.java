@@ -0,0 +1,24 @@
+package com.ecomm.ecom.dto;
+
+import com.ecomm.ecom.model.Product;
+import java.util.List;
+
+public class ProductPage {
+
+    private final List<Product> items;
+
+    private final Integer nextCursor; // null when this is the last page
+
+    public ProductPage(List<Product> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+}
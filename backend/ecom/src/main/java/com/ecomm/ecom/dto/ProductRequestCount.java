@@ -0,0 +1,42 @@
+package com.ecomm.ecom.dto;
+
+public class ProductRequestCount {
+
+    private final int productId;
+
+    private final String name;     // null once the product has been deleted
+
+    private final String brand;
+
+    private final String category; // normalized category key
+
+    private final long requests;
+
+    public ProductRequestCount(int productId, String name, String brand, String category, long requests) {
+        this.productId = productId;
+        this.name = name;
+        this.brand = brand;
+        this.category = category;
+        this.requests = requests;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecomm.ecom.dto;
+
+/** A brand or category and how many product requests it received. */
+public class RequestCount {
+
+    private final String name;
+
+    private final long requests;
+
+    public RequestCount(String name, long requests) {
+        this.name = name;
+        this.requests = requests;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+}
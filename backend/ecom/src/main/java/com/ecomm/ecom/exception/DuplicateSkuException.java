@@ -0,0 +1,12 @@
+package com.ecomm.ecom.exception;
+
+/**
+ * A product create or update would reuse another product's SKU (the unique
+ * idx_product_sku index). Answered with a 409 by GlobalExceptionHandler.
+ */
+public class DuplicateSkuException extends RuntimeException {
+
+    public DuplicateSkuException(String sku) {
+        super("A product with SKU '" + sku + "' already exists", null, false, false);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecomm.ecom.exception;
+
+/**
+ * An Idempotency-Key was reused with a different request body. Answered with
+ * a 422 by GlobalExceptionHandler; like NotFoundException it carries no stack trace.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecomm.ecom.exception;
+
+/**
+ * A requested record does not exist. Answered with a 404 by
+ * GlobalExceptionHandler; misses are routine, so no stack trace is captured.
+ */
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -3,7 +3,6 @@ package com.ecomm.ecom.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Entity
 @Data
@@ -46,7 +45,9 @@ public class ContactMessage {
 
     public ContactMessage() {}
 
-    public ContactMessage(String name, String email, String phone, String message, String productIds, String productNames) {
+    public ContactMessage(String referenceCode, String name, String email, String phone, String message,
+                          String productIds, String productNames) {
+        this.referenceCode = referenceCode; // issued by ReferenceCodeGenerator
         this.name = name;
         this.email = email;
         this.phone = phone;
@@ -56,7 +57,6 @@ public class ContactMessage {
         this.createdAt = LocalDateTime.now();
         this.isRead = false;
         this.status = "PENDING";
-        this.referenceCode = generateReferenceCode();
     }
 
     @PrePersist
@@ -64,15 +64,5 @@ public class ContactMessage {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
-        if (referenceCode == null) {
-            referenceCode = generateReferenceCode();
-        }
-    }
-
-    private String generateReferenceCode() {
-        // Format: SE-YYYYMMDD-XXXX (e.g., SE-20260209-A7B3)
-        String datePart = java.time.LocalDate.now().toString().replace("-", "");
-        String randomPart = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "SE-" + datePart + "-" + randomPart;
     }
 }
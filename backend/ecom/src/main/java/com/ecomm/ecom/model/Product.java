@@ -1,7 +1,10 @@
 package com.ecomm.ecom.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 @Entity
 @Data
@@ -22,6 +25,21 @@ public class Product {
 
     private String brand;
 
+    @Column(name = "category_key", length = 50)
+    private String categoryKey; // Normalized storefront category, set by ProductCategorizer
+
+    @Column(length = 400) // unique index idx_product_sku comes from V9
+    private String sku; // Natural key for CSV upserts: supplier SKU or "brand|name"
+
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // Hash of the last imported CSV row, null after manual edits
+
+    @JsonIgnore
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "change_seq", insertable = false, updatable = false)
+    private Long changeSeq; // Stamped by a database trigger on every write, see V10
+
     public Product() {}
 
     public Product(int id, String name, String description, String imageUrl, String category, String brand) {
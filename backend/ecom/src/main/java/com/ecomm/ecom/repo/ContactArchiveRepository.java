@@ -0,0 +1,159 @@
+package com.ecomm.ecom.repo;
+
+import com.ecomm.ecom.model.ContactMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * contact_message_archive (see V14): finished inquiries moved out of
+ * contact_message, one partition per month of created_at named
+ * contact_message_archive_pYYYYMM.
+ */
+@Repository
+public class ContactArchiveRepository {
+
+    private static final String PARTITION_PREFIX = "contact_message_archive_p";
+
+    private static final String COLUMNS = "id, reference_code, name, email, phone, message, product_ids, "
+            + "product_names, created_at, is_read, status, updated_at";
+
+    // One statement per batch: rows leave the hot table and land in the archive atomically.
+    // SKIP LOCKED lets a second instance work alongside instead of waiting.
+    private static final String MOVE_SQL =
+            "WITH moved AS (DELETE FROM contact_message WHERE id IN ("
+                    + "SELECT id FROM contact_message WHERE is_read = TRUE AND updated_at < ? AND status = ANY(?) "
+                    + "ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING " + COLUMNS + ") "
+                    + "INSERT INTO contact_message_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved";
+
+    private static final String FIND_BY_CODE_SQL =
+            "SELECT " + COLUMNS + " FROM contact_message_archive WHERE reference_code = ? LIMIT 1";
+
+    // Codes carry the day they were issued (SE-YYYYMMDD-...), which is the day the
+    // inquiry was created give or take a late write-behind flush; bounding
+    // created_at lets the planner search one or two partitions instead of all
+    private static final String FIND_BY_CODE_AND_DAY_SQL =
+            "SELECT " + COLUMNS + " FROM contact_message_archive "
+                    + "WHERE reference_code = ? AND created_at >= ? AND created_at < ? LIMIT 1";
+
+    private static final Pattern DATED_CODE = Pattern.compile("SE-(\\d{8})-.+");
+
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = 'contact_message_archive'::regclass ORDER BY c.relname";
+
+    private static final String OLDEST_ARCHIVABLE_SQL =
+            "SELECT min(created_at) FROM contact_message WHERE is_read = TRUE AND updated_at < ? AND status = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ContactArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<ContactMessage> findByReferenceCode(String referenceCode) {
+        LocalDate issued = issuedOn(referenceCode);
+        if (issued != null) {
+            Optional<ContactMessage> found = jdbcTemplate.query(FIND_BY_CODE_AND_DAY_SQL, ARCHIVED, referenceCode,
+                    issued.minusDays(1).atStartOfDay(), issued.plusDays(2).atStartOfDay()).stream().findFirst();
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return jdbcTemplate.query(FIND_BY_CODE_SQL, ARCHIVED, referenceCode).stream().findFirst();
+    }
+
+    private static LocalDate issuedOn(String referenceCode) {
+        Matcher matcher = DATED_CODE.matcher(referenceCode);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(matcher.group(1), DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Moves up to limit matching inquiries into the archive; returns how many moved. */
+    public int moveBatch(LocalDateTime updatedBefore, List<String> statuses, int limit) {
+        return jdbcTemplate.update(MOVE_SQL, ps -> {
+            ps.setObject(1, updatedBefore);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", statuses.toArray()));
+            ps.setInt(3, limit);
+        });
+    }
+
+    /** Month of the oldest inquiry moveBatch would pick up, or null when there is none. */
+    public YearMonth oldestArchivableMonth(LocalDateTime updatedBefore, List<String> statuses) {
+        List<LocalDateTime> oldest = jdbcTemplate.query(OLDEST_ARCHIVABLE_SQL, ps -> {
+            ps.setObject(1, updatedBefore);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", statuses.toArray()));
+        }, (rs, rowNum) -> rs.getObject(1, LocalDateTime.class));
+        return oldest.isEmpty() || oldest.get(0) == null ? null : YearMonth.from(oldest.get(0));
+    }
+
+    public List<YearMonth> partitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class).stream()
+                .filter(name -> name.startsWith(PARTITION_PREFIX))
+                .map(name -> YearMonth.of(Integer.parseInt(name.substring(PARTITION_PREFIX.length(),
+                                PARTITION_PREFIX.length() + 4)),
+                        Integer.parseInt(name.substring(PARTITION_PREFIX.length() + 4))))
+                .toList();
+    }
+
+    /** Caller serializes partition changes (see ContactArchiver). */
+    public void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF contact_message_archive FOR VALUES FROM ('" + from + "') TO ('"
+                + from.plusMonths(1) + "')");
+    }
+
+    /**
+     * Deletes the product links of the inquiries archived in a month, ahead of
+     * dropping its partition. Links of inquiries from that month still in
+     * contact_message (not yet eligible, or skipped while locked) are kept.
+     * Caller serializes partition changes.
+     */
+    public int deleteProductLinks(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        return jdbcTemplate.update("DELETE FROM contact_message_product WHERE created_at >= ? AND created_at < ? "
+                        + "AND contact_message_id IN (SELECT id FROM " + partitionName(month) + ")",
+                from.atStartOfDay(), from.plusMonths(1).atStartOfDay());
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s%04d%02d", PARTITION_PREFIX, month.getYear(), month.getMonthValue());
+    }
+
+    private static final RowMapper<ContactMessage> ARCHIVED = (rs, rowNum) -> {
+        ContactMessage m = new ContactMessage();
+        m.setId(rs.getLong("id"));
+        m.setReferenceCode(rs.getString("reference_code"));
+        m.setName(rs.getString("name"));
+        m.setEmail(rs.getString("email"));
+        m.setPhone(rs.getString("phone"));
+        m.setMessage(rs.getString("message"));
+        m.setProductIds(rs.getString("product_ids"));
+        m.setProductNames(rs.getString("product_names"));
+        m.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        m.setIsRead(rs.getBoolean("is_read"));
+        m.setStatus(rs.getString("status"));
+        return m;
+    };
+}
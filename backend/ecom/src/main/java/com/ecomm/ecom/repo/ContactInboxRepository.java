@@ -0,0 +1,160 @@
+package com.ecomm.ecom.repo;
+
+import com.ecomm.ecom.dto.BulkUpdateResult;
+import com.ecomm.ecom.dto.InquirySummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Admin inbox pages over contact_message, newest first, selecting only the
+ * list columns, plus the bulk updates and the CSV export that act on the same
+ * filters. The WHERE
+ * clause is assembled from the filters in use so each combination can use one
+ * of the V12 indexes.
+ */
+@Repository
+public class ContactInboxRepository {
+
+    private static final String SELECT_SUMMARY =
+            "SELECT id, reference_code, name, email, phone, product_ids, status, is_read, created_at "
+                    + "FROM contact_message WHERE TRUE";
+
+    // Target rows are locked first so is_read is known as it was before the update
+    private static final String BULK_STATUS_SQL =
+            "WITH target AS (SELECT id, is_read FROM contact_message WHERE TRUE%s FOR UPDATE), "
+                    + "updated AS (UPDATE contact_message m SET status = :newStatus, is_read = TRUE "
+                    + "FROM target t WHERE m.id = t.id RETURNING t.is_read AS was_read) "
+                    + "SELECT count(*) AS updated, count(*) FILTER (WHERE NOT was_read) AS marked_read FROM updated";
+
+    private static final String BULK_READ_SQL =
+            "UPDATE contact_message SET is_read = TRUE WHERE is_read = FALSE%s";
+
+    // Archived inquiries (V14) are exported too; archived tells them apart
+    private static final String EXPORT_COLUMNS =
+            "id, reference_code, created_at, status, is_read, name, email, phone, product_ids, product_names, message";
+    private static final String SELECT_EXPORT =
+            "SELECT " + EXPORT_COLUMNS + ", FALSE AS archived FROM contact_message WHERE TRUE";
+    private static final String SELECT_EXPORT_ARCHIVE =
+            " UNION ALL SELECT " + EXPORT_COLUMNS + ", TRUE AS archived FROM contact_message_archive WHERE TRUE";
+
+    public static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public ContactInboxRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Fetch size makes the driver read through a cursor instead of loading every row;
+        // PostgreSQL only does so inside a transaction
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(EXPORT_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * @param afterCreatedAt keyset cursor: created_at of the last row already returned (null for the first page)
+     * @param afterId        keyset cursor: id of that row
+     * @param from           inclusive lower bound on created_at, or null
+     * @param to             exclusive upper bound on created_at, or null
+     */
+    public List<InquirySummary> findPage(String status, Boolean read, LocalDateTime from, LocalDateTime to,
+                                         LocalDateTime afterCreatedAt, Long afterId, int limit) {
+
+        StringBuilder sql = new StringBuilder(SELECT_SUMMARY);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        appendFilters(sql, params, null, status, read, from, to);
+
+        if (afterCreatedAt != null) {
+            sql.append(" AND (created_at, id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", afterCreatedAt);
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new InquirySummary(
+                rs.getLong("id"),
+                rs.getString("reference_code"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("product_ids"),
+                rs.getString("status"),
+                rs.getBoolean("is_read"),
+                rs.getObject("created_at", LocalDateTime.class)
+        ));
+    }
+
+    /**
+     * Hands every matching inquiry, archived ones included, oldest first, to
+     * the handler while the rows are still being read. Call inside a
+     * transaction so rows arrive in EXPORT_FETCH_SIZE chunks.
+     */
+    public void forEachInquiry(String status, Boolean read, LocalDateTime from, LocalDateTime to,
+                               RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(SELECT_EXPORT);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        appendFilters(sql, params, null, status, read, from, to);
+        sql.append(SELECT_EXPORT_ARCHIVE);
+        appendFilters(sql, params, null, status, read, from, to);
+        sql.append(" ORDER BY created_at, id");
+
+        streamingJdbcTemplate.query(sql.toString(), params, handler);
+    }
+
+    /**
+     * Sets the status of every matching inquiry and marks it read, in one
+     * statement. Matches by reference code when codes is not null, otherwise
+     * by the filters.
+     */
+    public BulkUpdateResult updateStatus(Collection<String> codes, String status, Boolean read,
+                                         LocalDateTime createdBefore, String newStatus) {
+        StringBuilder where = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource("newStatus", newStatus);
+        appendFilters(where, params, codes, status, read, null, createdBefore);
+
+        return jdbcTemplate.queryForObject(String.format(BULK_STATUS_SQL, where), params,
+                (rs, rowNum) -> new BulkUpdateResult(rs.getInt("updated"), rs.getInt("marked_read")));
+    }
+
+    /** Marks matching unread inquiries read; returns how many changed. */
+    public int markRead(Collection<String> codes, String status, LocalDateTime createdBefore) {
+        StringBuilder where = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        appendFilters(where, params, codes, status, null, null, createdBefore);
+
+        return jdbcTemplate.update(String.format(BULK_READ_SQL, where), params);
+    }
+
+    private static void appendFilters(StringBuilder sql, MapSqlParameterSource params, Collection<String> codes,
+                                      String status, Boolean read, LocalDateTime from, LocalDateTime to) {
+        if (codes != null) {
+            sql.append(" AND reference_code IN (:codes)");
+            params.addValue("codes", codes);
+        }
+        if (status != null) {
+            sql.append(" AND status = :status");
+            params.addValue("status", status);
+        }
+        if (read != null) {
+            // Literal rather than a parameter so the planner can match the partial unread index
+            sql.append(read ? " AND is_read = TRUE" : " AND is_read = FALSE");
+        }
+        if (from != null) {
+            sql.append(" AND created_at >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND created_at < :to");
+            params.addValue("to", to);
+        }
+    }
+}
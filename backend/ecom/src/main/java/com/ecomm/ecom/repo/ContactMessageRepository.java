@@ -2,6 +2,9 @@ package com.ecomm.ecom.repo;
 
 import com.ecomm.ecom.model.ContactMessage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +24,20 @@ public interface ContactMessageRepository extends JpaRepository<ContactMessage,
 
     // Find by reference code
     Optional<ContactMessage> findByReferenceCode(String referenceCode);
+
+    boolean existsByReferenceCode(String referenceCode);
+
+    // Conditional updates: the row count says whether the unread total changed
+    @Modifying
+    @Query("UPDATE ContactMessage m SET m.status = :status, m.isRead = true "
+            + "WHERE m.referenceCode = :referenceCode AND m.isRead = false")
+    int updateStatusOfUnread(@Param("referenceCode") String referenceCode, @Param("status") String status);
+
+    @Modifying
+    @Query("UPDATE ContactMessage m SET m.status = :status WHERE m.referenceCode = :referenceCode")
+    int updateStatus(@Param("referenceCode") String referenceCode, @Param("status") String status);
+
+    @Modifying
+    @Query("UPDATE ContactMessage m SET m.isRead = true WHERE m.referenceCode = :referenceCode AND m.isRead = false")
+    int markReadIfUnread(@Param("referenceCode") String referenceCode);
 }
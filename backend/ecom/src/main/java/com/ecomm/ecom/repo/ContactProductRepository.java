@@ -0,0 +1,116 @@
+package com.ecomm.ecom.repo;
+
+import com.ecomm.ecom.dto.ProductRequestCount;
+import com.ecomm.ecom.dto.RequestCount;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * contact_message_product: the products each inquiry asked about (see V13),
+ * and the "most requested" reports built on it.
+ *
+ * Reports count product requests, so an inquiry about two fans from one brand
+ * adds two to that brand. They read either the per-day rollup
+ * (contact_product_daily) or the link rows themselves; both give the same
+ * numbers for whole days.
+ */
+@Repository
+public class ContactProductRepository {
+
+    private static final String LINK_SQL =
+            "INSERT INTO contact_message_product (contact_message_id, product_id, created_at) "
+                    + "SELECT ?, unnest(?), ? ON CONFLICT DO NOTHING";
+
+    private static final String ROLLUP_COUNTS =
+            "SELECT product_id, SUM(requests) AS requests FROM contact_product_daily "
+                    + "WHERE day >= :from AND day < :to GROUP BY product_id";
+
+    private static final String LIVE_COUNTS =
+            "SELECT product_id, count(*) AS requests FROM contact_message_product "
+                    + "WHERE created_at >= :from AND created_at < :to GROUP BY product_id";
+
+    // Rank on the counts alone, then look up names for the winners only
+    private static final String TOP_PRODUCTS =
+            "WITH counts AS (%s), top AS (SELECT product_id, requests FROM counts "
+                    + "WHERE requests > 0 ORDER BY requests DESC, product_id LIMIT :limit) "
+                    + "SELECT t.product_id, p.name, p.brand, p.category_key, t.requests "
+                    + "FROM top t LEFT JOIN product p ON p.id = t.product_id "
+                    + "ORDER BY t.requests DESC, t.product_id";
+
+    // Products deleted since are left out of brand and category totals
+    private static final String TOP_GROUPS =
+            "WITH counts AS (%s) SELECT %s AS name, SUM(c.requests) AS requests "
+                    + "FROM counts c JOIN product p ON p.id = c.product_id "
+                    + "GROUP BY 1 HAVING SUM(c.requests) > 0 ORDER BY 2 DESC, 1 LIMIT :limit";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public ContactProductRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /** Links an inquiry to products that are known to exist. */
+    public void link(long contactMessageId, LocalDateTime createdAt, Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(LINK_SQL, ps -> {
+            ps.setLong(1, contactMessageId);
+            ps.setArray(2, ps.getConnection().createArrayOf("integer", productIds.toArray()));
+            ps.setObject(3, createdAt);
+        });
+    }
+
+    /**
+     * @param from     first day of the window
+     * @param to       day after the last day of the window
+     * @param useRollup read contact_product_daily instead of the link rows
+     */
+    public List<ProductRequestCount> topProducts(LocalDate from, LocalDate to, int limit, boolean useRollup) {
+        return namedJdbcTemplate.query(String.format(TOP_PRODUCTS, counts(useRollup)),
+                params(from, to, limit, useRollup),
+                (rs, rowNum) -> new ProductRequestCount(
+                        rs.getInt("product_id"),
+                        rs.getString("name"),
+                        rs.getString("brand"),
+                        rs.getString("category_key"),
+                        rs.getLong("requests")));
+    }
+
+    public List<RequestCount> topBrands(LocalDate from, LocalDate to, int limit, boolean useRollup) {
+        return topGroups("COALESCE(NULLIF(trim(p.brand), ''), :unknown)", "Unbranded",
+                from, to, limit, useRollup);
+    }
+
+    public List<RequestCount> topCategories(LocalDate from, LocalDate to, int limit, boolean useRollup,
+                                            String defaultCategory) {
+        return topGroups("COALESCE(p.category_key, :unknown)", defaultCategory, from, to, limit, useRollup);
+    }
+
+    private List<RequestCount> topGroups(String groupBy, String unknown,
+                                         LocalDate from, LocalDate to, int limit, boolean useRollup) {
+        return namedJdbcTemplate.query(String.format(TOP_GROUPS, counts(useRollup), groupBy),
+                params(from, to, limit, useRollup).addValue("unknown", unknown),
+                (rs, rowNum) -> new RequestCount(rs.getString("name"), rs.getLong("requests")));
+    }
+
+    private static String counts(boolean useRollup) {
+        return useRollup ? ROLLUP_COUNTS : LIVE_COUNTS;
+    }
+
+    private static MapSqlParameterSource params(LocalDate from, LocalDate to, int limit, boolean useRollup) {
+        return new MapSqlParameterSource()
+                .addValue("from", useRollup ? from : from.atStartOfDay())
+                .addValue("to", useRollup ? to : to.atStartOfDay())
+                .addValue("limit", limit);
+    }
+}
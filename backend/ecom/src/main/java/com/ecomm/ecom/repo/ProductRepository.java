@@ -1,7 +1,77 @@
 package com.ecomm.ecom.repo;
 
 import com.ecomm.ecom.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Integer> {
-}
\ No newline at end of file
+
+    // GIN-indexed full-text match (see V8); :q is a to_tsquery() expression
+    String SEARCH_IDS_SQL = """
+            SELECT p.id
+            FROM product p, to_tsquery('english', :q) query
+            WHERE p.search_vector @@ query
+            ORDER BY ts_rank(p.search_vector, query) DESC, p.id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    // Writes and deletes after a change sequence number, oldest first (see V10)
+    String CHANGES_SQL = """
+            SELECT id, change_seq AS "changeSeq", false AS deleted
+            FROM product WHERE change_seq > :since
+            UNION ALL
+            SELECT product_id, change_seq, true
+            FROM product_tombstone WHERE change_seq > :since
+            ORDER BY "changeSeq"
+            LIMIT :limit
+            """;
+
+    // Catalog version: the latest write or delete (both index-only lookups)
+    String CATALOG_VERSION_SQL = """
+            SELECT greatest(coalesce((SELECT max(change_seq) FROM product), 0),
+                            coalesce((SELECT max(change_seq) FROM product_tombstone), 0))
+            """;
+
+    // When the latest write or delete happened, in epoch millis (null for an empty catalog)
+    String CATALOG_LAST_MODIFIED_SQL = """
+            SELECT CAST(floor(extract(epoch FROM greatest(
+                       (SELECT updated_at FROM product ORDER BY change_seq DESC LIMIT 1),
+                       (SELECT deleted_at FROM product_tombstone ORDER BY change_seq DESC LIMIT 1))) * 1000) AS BIGINT)
+            """;
+
+    interface Change {
+        Integer getId();
+        Long getChangeSeq();
+        Boolean getDeleted();
+    }
+
+    // Keyset pages ordered by id (cursor = last id of the previous page)
+    List<Product> findByIdGreaterThanOrderByIdAsc(int afterId, Limit limit);
+
+    List<Product> findByCategoryKeyAndIdGreaterThanOrderByIdAsc(String categoryKey, int afterId, Limit limit);
+
+    List<Product> findByBrandAndIdGreaterThanOrderByIdAsc(String brand, int afterId, Limit limit);
+
+    List<Product> findByCategoryKeyAndBrandAndIdGreaterThanOrderByIdAsc(String categoryKey, String brand,
+                                                                        int afterId, Limit limit);
+
+    // Products still waiting for a category key (rows written before V7)
+    List<Product> findByCategoryKeyIsNull();
+
+    // Ids only: the products themselves are served from the in-memory catalog
+    @Query(value = SEARCH_IDS_SQL, nativeQuery = true)
+    List<Integer> searchIds(@Param("q") String tsQuery, @Param("limit") int limit, @Param("offset") int offset);
+
+    @Query(value = CHANGES_SQL, nativeQuery = true)
+    List<Change> findChangesSince(@Param("since") long since, @Param("limit") int limit);
+
+    @Query(value = CATALOG_VERSION_SQL, nativeQuery = true)
+    long findCatalogVersion();
+
+    @Query(value = CATALOG_LAST_MODIFIED_SQL, nativeQuery = true)
+    Long findCatalogLastModified();
+}
@@ -0,0 +1,140 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.repo.ContactArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps contact_message small: inquiries that are read and have sat in a
+ * finished status (app.contact.archive.statuses) for archive.after-days since
+ * their last change move to contact_message_archive in batches, on a schedule
+ * (archive.cron, "-" to disable).
+ *
+ * Archived inquiries can still be tracked and opened by reference code (see
+ * ContactService), but no longer appear in the inbox or accept updates. Their
+ * product links stay, so the most-requested report is unaffected. With
+ * archive.retention-months set, archive months older than that are dropped
+ * together with the product links of the inquiries in them.
+ */
+@Service
+public class ContactArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactArchiver.class);
+
+    private static final String PARTITION_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('contact_message_archive'))";
+
+    private final ContactArchiveRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int afterDays;
+    private final List<String> statuses;
+    private final int batchSize;
+    private final int retentionMonths;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ContactArchiver(ContactArchiveRepository archiveRepository,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${app.contact.archive.after-days:90}") int afterDays,
+                           @Value("${app.contact.archive.statuses:CLOSED}") String statuses,
+                           @Value("${app.contact.archive.batch-size:5000}") int batchSize,
+                           @Value("${app.contact.archive.retention-months:0}") int retentionMonths) {
+        this.archiveRepository = archiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.afterDays = afterDays;
+        this.statuses = Arrays.stream(statuses.split(","))
+                .map(s -> s.trim().toUpperCase(Locale.ROOT))
+                .filter(s -> !s.isEmpty())
+                .toList();
+        this.batchSize = batchSize;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${app.contact.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        archive();
+    }
+
+    /** Runs one archival pass; returns the number of inquiries moved. */
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+
+            long moved = 0;
+            if (preparePartitions(cutoff)) {
+                int batch;
+                do {
+                    batch = archiveRepository.moveBatch(cutoff, statuses, batchSize);
+                    moved += batch;
+                } while (batch == batchSize);
+            }
+
+            dropExpiredMonths();
+            if (moved > 0) {
+                log.info("Archived {} inquiries in {} ms", moved, System.currentTimeMillis() - started);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Every month a candidate could fall in, from the oldest one to next month;
+    // false when there is nothing to archive
+    private boolean preparePartitions(LocalDateTime cutoff) {
+        YearMonth oldest = archiveRepository.oldestArchivableMonth(cutoff, statuses);
+        if (oldest == null) {
+            return false;
+        }
+        YearMonth last = YearMonth.now().plusMonths(1);
+        Set<YearMonth> existing = new HashSet<>(archiveRepository.partitions());
+        for (YearMonth month = oldest; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!existing.contains(month)) {
+                YearMonth create = month;
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute(PARTITION_LOCK_SQL);
+                    archiveRepository.createPartition(create);
+                });
+            }
+        }
+        return true;
+    }
+
+    private void dropExpiredMonths() {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth keepFrom = YearMonth.now().minusMonths(retentionMonths);
+        for (YearMonth month : archiveRepository.partitions()) {
+            if (month.isBefore(keepFrom)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute(PARTITION_LOCK_SQL);
+                    archiveRepository.deleteProductLinks(month);
+                    archiveRepository.dropPartition(month);
+                });
+                log.info("Dropped archived inquiries from {} (retention {} months)", month, retentionMonths);
+            }
+        }
+    }
+}
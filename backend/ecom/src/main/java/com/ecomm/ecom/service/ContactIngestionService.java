@@ -0,0 +1,460 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.model.ContactMessage;
+import com.ecomm.ecom.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts public inquiries (POST /contact).
+ *
+ * In the default "sync" mode every inquiry is saved on the request thread by
+ * EmailService. In "write-behind" mode (app.contact.ingestion=write-behind)
+ * the request only assigns the reference code, appends the message to a local
+ * journal and queues it; a single writer thread drains the queue into
+ * contact_message with multi-row inserts, so a burst of submissions costs a
+ * handful of connections instead of one per request.
+ *
+ * Queued messages stay visible to tracking lookups until they are written.
+ * When the queue is full, or the journal cannot be written, the request falls
+ * back to the synchronous path. Journal entries left by a previous run are
+ * written by the same writer, once the application is ready, so they reach
+ * the admin feed like any other inquiry.
+ */
+@Service
+public class ContactIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactIngestionService.class);
+
+    private static final String INSERT_PREFIX =
+            "WITH inserted AS (INSERT INTO contact_message (reference_code, name, email, phone, message, "
+                    + "product_ids, product_names, created_at, is_read, status) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Replayed journal entries may already be in the table. The product links
+    // (see V13) are written by the same statement, for products that exist.
+    private static final String INSERT_SUFFIX =
+            " ON CONFLICT (reference_code) DO NOTHING RETURNING id, reference_code, product_ids, created_at), "
+                    + "linked AS (INSERT INTO contact_message_product (contact_message_id, product_id, created_at) "
+                    + "SELECT DISTINCT i.id, p.id, i.created_at FROM inserted i "
+                    + "CROSS JOIN LATERAL unnest(string_to_array(i.product_ids, ',')) AS ids(value) "
+                    + "JOIN product p ON p.id = CASE WHEN ids.value ~ '^[0-9]{1,9}$' THEN ids.value::INT END "
+                    + "ON CONFLICT DO NOTHING) "
+                    + "SELECT reference_code FROM inserted";
+    private static final int COLUMNS = 10;
+    // PostgreSQL takes at most 32767 bind parameters per statement
+    private static final int MAX_BATCH_SIZE = Short.MAX_VALUE / COLUMNS;
+
+    // Rows already in the table with the same code, email and timestamp are
+    // the same inquiry (a batch committed before its retry), not a clash
+    private static final String STORED_PREFIX =
+            "SELECT c.reference_code FROM contact_message c JOIN (VALUES ";
+    private static final String STORED_ROW = "(?, ?, CAST(? AS TIMESTAMP))";
+    private static final String STORED_SUFFIX =
+            ") AS v(reference_code, email, created_at) ON c.reference_code = v.reference_code "
+                    + "AND c.email = v.email AND c.created_at = v.created_at";
+
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private final EmailService emailService;
+    private final ReferenceCodeGenerator referenceCodes;
+    private final ReferenceCodeFilter referenceCodeFilter;
+    private final ProductCatalog catalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final Path journalPath;
+    private final boolean journalFsync;
+    private final long journalSegmentBytes;
+
+    private final BlockingQueue<ContactMessage> queue;
+    private final Map<String, ContactMessage> pending = new ConcurrentHashMap<>();
+    // Orders journal appends with the queue; the fsync happens outside it
+    private final ReentrantLock journalLock = new ReentrantLock();
+
+    private ContactJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+
+    public ContactIngestionService(EmailService emailService,
+                                   ReferenceCodeGenerator referenceCodes,
+                                   ReferenceCodeFilter referenceCodeFilter,
+                                   ProductCatalog catalog,
+                                   JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${app.contact.ingestion:sync}") String mode,
+                                   @Value("${app.contact.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.contact.batch-size:500}") int batchSize,
+                                   @Value("${app.contact.journal:data/contact-journal.log}") String journalPath,
+                                   @Value("${app.contact.journal-fsync:true}") boolean journalFsync,
+                                   @Value("${app.contact.journal-segment-kb:4096}") long journalSegmentKb) {
+        this.emailService = emailService;
+        this.referenceCodes = referenceCodes;
+        this.referenceCodeFilter = referenceCodeFilter;
+        this.catalog = catalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = "write-behind".equalsIgnoreCase(mode.trim());
+        if (batchSize > MAX_BATCH_SIZE) {
+            log.warn("app.contact.batch-size {} exceeds the statement parameter limit, using {}",
+                    batchSize, MAX_BATCH_SIZE);
+        }
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        this.journalPath = Path.of(journalPath);
+        this.journalFsync = journalFsync;
+        this.journalSegmentBytes = Math.max(1, journalSegmentKb) * 1024;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // ===============================
+    // LIFECYCLE
+    // ===============================
+
+    // Submissions queue from here on; the writer starts once the app is ready
+    @PostConstruct
+    void start() throws IOException {
+        if (!writeBehind) {
+            return;
+        }
+        journal = new ContactJournal(journalPath, objectMapper, journalFsync, journalSegmentBytes);
+        for (ContactMessage m : journal.recovered()) {
+            pending.put(m.getReferenceCode(), m);
+        }
+        running = true;
+    }
+
+    // Events published before the context is ready would miss the admin feed
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriter() {
+        if (!writeBehind || writer != null) {
+            return;
+        }
+        writer = new Thread(this::drain, "contact-writer");
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        if (journal == null) {
+            return;
+        }
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (!pending.isEmpty()) {
+            log.warn("{} contact messages not yet written; they stay in the journal for the next start",
+                    pending.size());
+        }
+        journal.close();
+    }
+
+    // ===============================
+    // SUBMIT
+    // ===============================
+
+    public ContactMessage submit(String name, String email, String phone, String message, List<Integer> productIds) {
+
+        // Issued before any transaction opens: reserving a block of codes uses its own connection
+        String referenceCode = referenceCodes.next();
+        referenceCodeFilter.add(referenceCode);
+
+        if (!writeBehind) {
+            return emailService.sendContactMail(referenceCode, name, email, phone, message, productIds);
+        }
+
+        String productIdsStr = null;
+        String productNamesStr = null;
+        if (productIds != null && !productIds.isEmpty()) {
+            productIdsStr = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            productNamesStr = productNames(productIds);
+        }
+
+        ContactMessage queued = null;
+        long offset = 0;
+        journalLock.lock();
+        try {
+            if (running && queue.remainingCapacity() > 0) {
+                ContactMessage m = new ContactMessage(referenceCode, name, email, phone, message,
+                        productIdsStr, productNamesStr);
+                offset = journal.append(m);
+                pending.put(m.getReferenceCode(), m);
+                queue.add(m); // only submitters add, and they hold the lock
+                queued = m;
+            }
+        } catch (IOException e) {
+            log.warn("Contact journal unavailable, saving synchronously: {}", e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+
+        if (queued != null) {
+            try {
+                journal.sync(offset); // shared with whoever else is waiting
+            } catch (IOException e) {
+                // Already queued, so it is still written; only a crash before then would lose it
+                log.warn("Could not sync contact journal for {}: {}", queued.getReferenceCode(), e.getMessage());
+            }
+            return queued;
+        }
+        return emailService.sendContactMail(referenceCode, name, email, phone, message, productIds);
+    }
+
+    /** A message accepted but not yet written to the database, or null. */
+    public ContactMessage findQueued(String referenceCode) {
+        return pending.get(referenceCode);
+    }
+
+    // Names come from the catalog snapshot, so queuing needs no connection
+    private String productNames(List<Integer> productIds) {
+        ProductCatalog.Snapshot snapshot = catalog.snapshot();
+        List<String> names = new ArrayList<>(productIds.size());
+        for (Integer id : productIds) {
+            Product product = id != null ? snapshot.findById(id) : null;
+            if (product != null) {
+                names.add(product.getName());
+            }
+        }
+        return String.join(", ", names);
+    }
+
+    // ===============================
+    // WRITER
+    // ===============================
+
+    private void drain() {
+        if (!replay()) {
+            return;
+        }
+        List<ContactMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ContactMessage first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                if (!write(batch, false)) {
+                    return; // shutting down with the database unreachable; the journal keeps the rest
+                }
+                done(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Contact writer failed, retrying batch", e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Journal entries from a previous run go first, in journal order, so the
+    // journal can count them off; false when stopping before they are written
+    private boolean replay() {
+        List<ContactMessage> recovered = journal.recovered();
+        if (recovered.isEmpty()) {
+            return true;
+        }
+        log.info("Replaying {} journaled contact messages", recovered.size());
+        int from = 0;
+        while (from < recovered.size()) {
+            List<ContactMessage> batch = recovered.subList(from, Math.min(from + batchSize, recovered.size()));
+            try {
+                if (!write(batch, true)) {
+                    return false;
+                }
+                done(batch);
+                from += batch.size();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (RuntimeException e) {
+                log.error("Contact writer failed, retrying replayed batch", e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Retries until the batch is written; false only when stopping while the database is down
+    private boolean write(List<ContactMessage> batch, boolean replayed) throws InterruptedException {
+        long delay = 500;
+        while (true) {
+            Set<String> written;
+            try {
+                written = insert(batch);
+            } catch (DataIntegrityViolationException e) {
+                writeOneByOne(batch, replayed);
+                return true;
+            } catch (DataAccessException e) {
+                if (!running) {
+                    return false;
+                }
+                log.warn("Contact writer could not reach the database, retrying in {} ms: {}",
+                        delay, e.getMostSpecificCause().getMessage());
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+                continue;
+            }
+            settle(batch, written, replayed);
+            return true;
+        }
+    }
+
+    // Rows the insert skipped are either already stored (the same batch was
+    // written before a failed retry, or before a restart when replayed) or a
+    // genuine reference code clash. Replayed rows found stored were announced
+    // by the run that wrote them.
+    private void settle(List<ContactMessage> batch, Set<String> written, boolean replayed) {
+        List<ContactMessage> skipped = new ArrayList<>();
+        for (ContactMessage m : batch) {
+            if (!written.contains(m.getReferenceCode())) {
+                skipped.add(m);
+            }
+        }
+        Set<String> stored = skipped.isEmpty() ? Set.of() : stored(skipped);
+        for (ContactMessage m : batch) {
+            if (written.contains(m.getReferenceCode())) {
+                published(m);
+            } else if (stored.contains(m.getReferenceCode())) {
+                if (!replayed) {
+                    published(m);
+                }
+            } else {
+                resave(m);
+            }
+        }
+    }
+
+    private void writeOneByOne(List<ContactMessage> batch, boolean replayed) {
+        for (ContactMessage m : batch) {
+            try {
+                settle(List.of(m), insert(List.of(m)), replayed);
+            } catch (DataAccessException e) {
+                // Not retryable: log everything so the inquiry can be recovered by hand
+                log.error("Dropping contact message {} ({} <{}>, phone {}, products {}): {} | {}",
+                        m.getReferenceCode(), m.getName(), m.getEmail(), m.getPhone(), m.getProductIds(),
+                        e.getMostSpecificCause().getMessage(), m.getMessage());
+            }
+        }
+    }
+
+    // Reference code clash with an older inquiry: keep the message under a new code
+    private void resave(ContactMessage m) {
+        ContactMessage copy = new ContactMessage(referenceCodes.next(), m.getName(), m.getEmail(), m.getPhone(),
+                m.getMessage(), m.getProductIds(), m.getProductNames());
+        copy.setCreatedAt(m.getCreatedAt());
+        referenceCodeFilter.add(copy.getReferenceCode());
+        log.error("Reference code {} already in use, saving inquiry from {} as {}",
+                m.getReferenceCode(), m.getEmail(), copy.getReferenceCode());
+        try {
+            insert(List.of(copy));
+            published(copy);
+        } catch (DataAccessException e) {
+            log.error("Dropping contact message {} ({} <{}>, phone {}, products {}): {} | {}",
+                    m.getReferenceCode(), m.getName(), m.getEmail(), m.getPhone(), m.getProductIds(),
+                    e.getMostSpecificCause().getMessage(), m.getMessage());
+        }
+    }
+
+    // Written outside a transaction, so the feed hears about it straight away
+    private void published(ContactMessage m) {
+        eventPublisher.publishEvent(InquiryEvent.created(m.getReferenceCode(), m.getName(), m.getStatus()));
+    }
+
+    // The batch is settled: stop answering tracking from memory and let the
+    // journal drop what it no longer needs
+    private void done(List<ContactMessage> batch) {
+        for (ContactMessage m : batch) {
+            pending.remove(m.getReferenceCode());
+        }
+        journalLock.lock();
+        try {
+            journal.persisted(batch.size());
+        } catch (IOException e) {
+            log.warn("Could not trim contact journal: {}", e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // One multi-row INSERT; returns the reference codes actually inserted
+    private Set<String> insert(List<ContactMessage> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * 34 + INSERT_SUFFIX.length());
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (ContactMessage m : batch) {
+            sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+            args[i++] = m.getReferenceCode();
+            args[i++] = m.getName();
+            args[i++] = m.getEmail();
+            args[i++] = m.getPhone();
+            args[i++] = m.getMessage();
+            args[i++] = m.getProductIds();
+            args[i++] = m.getProductNames();
+            args[i++] = m.getCreatedAt();
+            args[i++] = m.getIsRead();
+            args[i++] = m.getStatus();
+        }
+        sql.append(INSERT_SUFFIX);
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), String.class, args));
+    }
+
+    // Reference codes of the given messages that are already in the table as the same inquiry
+    private Set<String> stored(List<ContactMessage> messages) {
+        StringBuilder sql = new StringBuilder(STORED_PREFIX);
+        Object[] args = new Object[messages.size() * 3];
+        int i = 0;
+        for (ContactMessage m : messages) {
+            sql.append(i == 0 ? "" : ", ").append(STORED_ROW);
+            args[i++] = m.getReferenceCode();
+            args[i++] = m.getEmail();
+            args[i++] = m.getCreatedAt();
+        }
+        sql.append(STORED_SUFFIX);
+        return new HashSet<>(jdbcTemplate.queryForList(sql.toString(), String.class, args));
+    }
+}
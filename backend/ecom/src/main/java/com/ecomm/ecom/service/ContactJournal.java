@@ -0,0 +1,225 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.model.ContactMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of accepted inquiries that have not reached the database
+ * yet, one JSON document per line, split into numbered segment files next to
+ * the configured path (contact-journal.log.1, .2, ...). Replayed on startup.
+ *
+ * append() only writes; sync() makes everything appended so far durable, and
+ * callers waiting at the same time share one fsync (group commit). The writer
+ * persists entries in the order they were appended and reports them as a
+ * count, so a segment is deleted as soon as all of its entries are in the
+ * database and a newer segment has taken over, and the current one is emptied
+ * whenever nothing is outstanding. The journal stays at about the backlog plus
+ * one segment however long the queue stays busy.
+ *
+ * Callers serialize append() and persisted(); sync() may run concurrently.
+ */
+final class ContactJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactJournal.class);
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final long segmentBytes;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final List<ContactMessage> recovered = new ArrayList<>();
+    private long nextSegment = 1;
+
+    // Held while forcing or switching the current segment, never while appending
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile Segment current;
+    private volatile long written; // bytes appended over the journal's lifetime
+    private volatile long synced;  // of which known to be on disk
+
+    ContactJournal(Path file, ObjectMapper objectMapper, boolean fsync, long segmentBytes) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        this.segmentBytes = segmentBytes;
+
+        for (Path leftover : leftovers()) {
+            Segment segment = new Segment(leftover);
+            segment.appended = read(leftover);
+            if (segment.appended == 0) {
+                Files.deleteIfExists(leftover);
+            } else {
+                segments.add(segment);
+            }
+        }
+        current = open();
+    }
+
+    /** Entries left over from a previous run, oldest first. They count as appended. */
+    List<ContactMessage> recovered() {
+        return Collections.unmodifiableList(recovered);
+    }
+
+    /** Writes a message; returns the offset to pass to sync(). */
+    long append(ContactMessage message) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(message);
+        if (current.bytes > 0 && current.bytes + json.length + 1 > segmentBytes) {
+            rotate();
+        }
+        Segment segment = current;
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (line.hasRemaining()) {
+            segment.channel.write(line);
+        }
+        segment.bytes += json.length + 1;
+        segment.appended++;
+        written += json.length + 1;
+        return written;
+    }
+
+    /** Returns once everything up to offset is on disk (when fsync is on). */
+    void sync(long offset) throws IOException {
+        if (!fsync || synced >= offset) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= offset) {
+                return; // covered by the fsync of a caller that got here first
+            }
+            long target = written;
+            current.channel.force(false);
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** The oldest count entries not yet reported are in the database. */
+    void persisted(int count) throws IOException {
+        int remaining = count;
+        while (remaining > 0 && !segments.isEmpty()) {
+            Segment oldest = segments.peekFirst();
+            int done = Math.min(remaining, oldest.appended - oldest.persisted);
+            oldest.persisted += done;
+            remaining -= done;
+            if (oldest == current) {
+                break;
+            }
+            if (oldest.persisted == oldest.appended) {
+                segments.removeFirst();
+                Files.deleteIfExists(oldest.path);
+            }
+        }
+        if (segments.size() == 1 && current.bytes > 0 && current.persisted == current.appended) {
+            current.channel.truncate(0);
+            current.bytes = 0;
+            current.appended = 0;
+            current.persisted = 0;
+        }
+    }
+
+    void close() throws IOException {
+        current.channel.close();
+    }
+
+    // Closes the current segment (durably) and starts the next one
+    private void rotate() throws IOException {
+        syncLock.lock();
+        try {
+            Segment full = current;
+            if (fsync) {
+                full.channel.force(false);
+            }
+            full.channel.close();
+            synced = written;
+            current = open();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private Segment open() throws IOException {
+        Segment segment = new Segment(file.resolveSibling(file.getFileName() + "." + nextSegment++));
+        segment.channel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segments.add(segment);
+        return segment;
+    }
+
+    // The unsegmented journal of older versions first, then segments by number
+    private List<Path> leftovers() throws IOException {
+        TreeMap<Long, Path> numbered = new TreeMap<>();
+        String prefix = file.getFileName() + ".";
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(file.toAbsolutePath().getParent(), prefix + "*")) {
+            for (Path path : dir) {
+                String suffix = path.getFileName().toString().substring(prefix.length());
+                if (suffix.matches("[0-9]{1,18}")) {
+                    numbered.put(Long.parseLong(suffix), path);
+                }
+            }
+        }
+        List<Path> paths = new ArrayList<>();
+        if (Files.exists(file)) {
+            paths.add(file);
+        }
+        paths.addAll(numbered.values());
+        if (!numbered.isEmpty()) {
+            nextSegment = numbered.lastKey() + 1;
+        }
+        return paths;
+    }
+
+    // Adds the readable entries to recovered; a torn last line is skipped
+    private int read(Path path) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    recovered.add(objectMapper.readValue(line, ContactMessage.class));
+                    count++;
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable contact journal entry: {}", e.getMessage());
+                }
+            }
+        }
+        return count;
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private FileChannel channel; // null for segments left over from a previous run
+        private long bytes;
+        private int appended;
+        private int persisted;
+
+        private Segment(Path path) {
+            this.path = path;
+        }
+    }
+}
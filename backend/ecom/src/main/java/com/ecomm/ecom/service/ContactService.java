@@ -1,24 +1,118 @@
 package com.ecomm.ecom.service;
 
+import com.ecomm.ecom.dto.BulkInquiryRequest;
+import com.ecomm.ecom.dto.BulkUpdateResult;
+import com.ecomm.ecom.dto.InquiryPage;
+import com.ecomm.ecom.dto.InquirySummary;
+import com.ecomm.ecom.exception.NotFoundException;
 import com.ecomm.ecom.model.ContactMessage;
+import com.ecomm.ecom.repo.ContactArchiveRepository;
+import com.ecomm.ecom.repo.ContactInboxRepository;
 import com.ecomm.ecom.repo.ContactMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ContactService {
 
+    public static final int DEFAULT_INBOX_SIZE = 25;
+    public static final int MAX_INBOX_SIZE = 100;
+
+    private static final int MAX_STATUS_LENGTH = 20; // contact_message.status is VARCHAR(20)
+
     private final ContactMessageRepository repository;
+    private final ContactInboxRepository inboxRepository;
+    private final ContactArchiveRepository archiveRepository;
+    private final ContactIngestionService ingestionService;
+    private final ReferenceCodeFilter referenceCodeFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrackingCache trackingCache;
 
-    public ContactService(ContactMessageRepository repository) {
+    // Public tracking lookups answered from memory (queue, cache or the
+    // reference code filter) versus from the database
+    private final Counter trackingHits;
+    private final Counter trackingMisses;
+
+    public ContactService(ContactMessageRepository repository,
+                          ContactInboxRepository inboxRepository,
+                          ContactArchiveRepository archiveRepository,
+                          ContactIngestionService ingestionService,
+                          ReferenceCodeFilter referenceCodeFilter,
+                          ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.contact.tracking-cache-size:1000}") int trackingCacheSize,
+                          @Value("${app.contact.tracking-cache-ttl-seconds:60}") long trackingCacheTtlSeconds) {
         this.repository = repository;
+        this.inboxRepository = inboxRepository;
+        this.archiveRepository = archiveRepository;
+        this.ingestionService = ingestionService;
+        this.referenceCodeFilter = referenceCodeFilter;
+        this.eventPublisher = eventPublisher;
+        this.trackingCache = new TrackingCache(trackingCacheSize, TimeUnit.SECONDS.toMillis(trackingCacheTtlSeconds));
+        this.trackingHits = trackingGets(meterRegistry, "hit");
+        this.trackingMisses = trackingGets(meterRegistry, "miss");
     }
 
+    private static Counter trackingGets(MeterRegistry registry, String result) {
+        return Counter.builder("cache.gets")
+                .description("Public tracking lookups")
+                .tag("cache", "contact.tracking")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Public tracking lookup. Queued (write-behind) inquiries and recently
+     * tracked ones are answered from memory; codes that cannot exist are
+     * rejected by the reference code filter before reaching the database.
+     */
+    public ContactMessage track(String referenceCode) {
+        String code = normalize(referenceCode);
+
+        ContactMessage queued = ingestionService.findQueued(code);
+        if (queued != null) {
+            trackingHits.increment();
+            return queued;
+        }
+        ContactMessage cached = trackingCache.get(code);
+        if (cached != null) {
+            trackingHits.increment();
+            return cached;
+        }
+        if (!referenceCodeFilter.mightExist(code)) {
+            trackingHits.increment();
+            throw new NotFoundException("Inquiry not found");
+        }
+        trackingMisses.increment();
+        long stamp = trackingCache.stamp();
+        ContactMessage msg = findByReferenceCode(code);
+        trackingCache.put(code, msg, stamp);
+        return msg;
+    }
+
+    /** Falls back to the archive for inquiries ContactArchiver has moved out. */
     public ContactMessage findByReferenceCode(String referenceCode) {
         return repository.findByReferenceCode(referenceCode)
+                .or(() -> archiveRepository.findByReferenceCode(referenceCode))
                 .orElseThrow(() ->
-                        new RuntimeException("Inquiry not found"));
+                        new NotFoundException("Inquiry not found"));
     }
 
     public List<ContactMessage> getAll() {
@@ -29,16 +123,250 @@ public class ContactService {
         return repository.findByIsReadFalseOrderByCreatedAtDesc();
     }
 
-    public ContactMessage updateStatus(String referenceCode, String status) {
-        ContactMessage msg = findByReferenceCode(referenceCode);
-        msg.setStatus(status);
-        msg.setIsRead(true);
-        return repository.save(msg);
+    /**
+     * One page of the admin inbox, newest first. The cursor is opaque to
+     * clients: pass back nextCursor to continue. from/to are inclusive days.
+     */
+    public InquiryPage getInbox(String cursor, Integer limit, String status, Boolean read,
+                                LocalDate from, LocalDate to) {
+
+        int pageSize = limit == null ? DEFAULT_INBOX_SIZE : Math.max(1, Math.min(limit, MAX_INBOX_SIZE));
+
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterCreatedAt = LocalDateTime.parse(parts[0]);
+            afterId = Long.parseLong(parts[1]);
+        }
+
+        List<InquirySummary> rows = inboxRepository.findPage(
+                status == null || status.isBlank() ? null : status.trim().toUpperCase(Locale.ROOT),
+                read,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                afterCreatedAt, afterId, pageSize + 1);
+
+        if (rows.size() <= pageSize) {
+            return new InquiryPage(rows, null);
+        }
+        List<InquirySummary> items = rows.subList(0, pageSize);
+        InquirySummary last = items.get(pageSize - 1);
+        return new InquiryPage(items, encodeCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parts;
+    }
+
+    /**
+     * Status and read changes are single conditional UPDATEs, so the row count
+     * tells the admin feed exactly how the unread total moved.
+     */
+    @Transactional
+    public void updateStatus(String referenceCode, String newStatus) {
+        String code = normalize(referenceCode);
+        String status = normalizeStatus(newStatus);
+        boolean wasUnread = repository.updateStatusOfUnread(code, status) > 0;
+        if (!wasUnread && repository.updateStatus(code, status) == 0) {
+            throw new NotFoundException("Inquiry not found");
+        }
+        eventPublisher.publishEvent(InquiryEvent.statusChanged(code, status, wasUnread));
+    }
+
+    @Transactional
+    public void markAsRead(String referenceCode) {
+        String code = normalize(referenceCode);
+        if (repository.markReadIfUnread(code) > 0) {
+            eventPublisher.publishEvent(InquiryEvent.read(code));
+        } else if (!repository.existsByReferenceCode(code)) {
+            throw new NotFoundException("Inquiry not found");
+        }
+    }
+
+    /**
+     * Drops cached tracking results once a change has committed: one code, or
+     * all of them after a bulk update. Dropping them before commit would let
+     * a concurrent lookup cache the old row again for the whole TTL.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInquiryEvent(InquiryEvent event) {
+        if (event.getType() == InquiryEvent.Type.CREATED) {
+            return;
+        }
+        if (event.getReferenceCode() != null) {
+            trackingCache.invalidate(event.getReferenceCode());
+        } else {
+            trackingCache.clear();
+        }
+    }
+
+    // Codes are issued upper-case; the tracking cache is keyed the same way
+    private static String normalize(String referenceCode) {
+        return referenceCode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Single and bulk updates store statuses the same way, so filters match both
+    private static String normalizeStatus(String status) {
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("status is required");
+        }
+        String normalized = status.trim().toUpperCase(Locale.ROOT);
+        if (normalized.length() > MAX_STATUS_LENGTH) {
+            throw new IllegalArgumentException("status is longer than " + MAX_STATUS_LENGTH + " characters");
+        }
+        return normalized;
+    }
+
+    /**
+     * Sets the status of many inquiries in one UPDATE and marks them read.
+     * Affected tracking results are dropped from the cache wholesale after
+     * commit.
+     */
+    @Transactional
+    public BulkUpdateResult bulkUpdateStatus(BulkInquiryRequest request) {
+        String newStatus = normalizeStatus(request.getStatus());
+        Set<String> codes = bulkCodes(request);
+        BulkInquiryRequest.Filter where = request.getWhere();
+
+        BulkUpdateResult result = codes != null
+                ? inboxRepository.updateStatus(codes, null, null, null, newStatus)
+                : inboxRepository.updateStatus(null, filterStatus(where), where.getRead(),
+                        olderThan(where), newStatus);
+
+        if (result.getUpdated() > 0) {
+            eventPublisher.publishEvent(
+                    InquiryEvent.bulkUpdated(newStatus, result.getUpdated(), result.getMarkedRead()));
+        }
+        return result;
+    }
+
+    /**
+     * Marks many inquiries read in one UPDATE; only unread ones count as
+     * updated. Tracking results are dropped from the cache as for status.
+     */
+    @Transactional
+    public BulkUpdateResult bulkMarkAsRead(BulkInquiryRequest request) {
+        Set<String> codes = bulkCodes(request);
+        BulkInquiryRequest.Filter where = request.getWhere();
+        if (codes == null && Boolean.TRUE.equals(where.getRead())) {
+            return new BulkUpdateResult(0, 0);
+        }
+
+        int updated = codes != null
+                ? inboxRepository.markRead(codes, null, null)
+                : inboxRepository.markRead(null, filterStatus(where), olderThan(where));
+
+        if (updated > 0) {
+            eventPublisher.publishEvent(InquiryEvent.bulkUpdated(null, updated, updated));
+        }
+        return new BulkUpdateResult(updated, updated);
+    }
+
+    // Normalized codes, or null when the request selects by filter
+    private static Set<String> bulkCodes(BulkInquiryRequest request) {
+        List<String> codes = request.getReferenceCodes();
+        BulkInquiryRequest.Filter where = request.getWhere();
+        if ((codes == null || codes.isEmpty()) == (where == null)) {
+            throw new IllegalArgumentException("Give either referenceCodes or where");
+        }
+        if (where != null) {
+            if (where.getStatus() == null && where.getRead() == null && where.getOlderThanDays() == null) {
+                throw new IllegalArgumentException("where needs at least one condition");
+            }
+            return null;
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String code : codes) {
+            if (code != null && !code.isBlank()) {
+                normalized.add(normalize(code));
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("referenceCodes is empty");
+        }
+        return normalized;
+    }
+
+    private static String filterStatus(BulkInquiryRequest.Filter where) {
+        return where.getStatus() == null || where.getStatus().isBlank()
+                ? null : where.getStatus().trim().toUpperCase(Locale.ROOT);
     }
 
-    public ContactMessage markAsRead(String referenceCode) {
-        ContactMessage msg = findByReferenceCode(referenceCode);
-        msg.setIsRead(true);
-        return repository.save(msg);
+    private static LocalDateTime olderThan(BulkInquiryRequest.Filter where) {
+        return where.getOlderThanDays() == null ? null : LocalDateTime.now().minusDays(where.getOlderThanDays());
+    }
+
+    // Small LRU of recent tracking results; entries also expire so status
+    // changes made on another instance show up within the TTL
+    // A lookup only caches its row when nothing was invalidated while it read
+    // the database (stamp), so a row read just before a commit is not cached.
+    private static final class TrackingCache {
+
+        private final long ttlMillis;
+        private final Map<String, Entry> entries;
+        private long generation; // bumped by every invalidation
+
+        private TrackingCache(int capacity, long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+            this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        private synchronized ContactMessage get(String code) {
+            Entry entry = entries.get(code);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() > entry.expiresAt) {
+                entries.remove(code);
+                return null;
+            }
+            return entry.message;
+        }
+
+        private synchronized long stamp() {
+            return generation;
+        }
+
+        private synchronized void put(String code, ContactMessage message, long stamp) {
+            if (stamp == generation) {
+                entries.put(code, new Entry(message, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+
+        private synchronized void invalidate(String code) {
+            generation++;
+            entries.remove(code);
+        }
+
+        private synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+
+        private static final class Entry {
+
+            private final ContactMessage message;
+            private final long expiresAt;
+
+            private Entry(ContactMessage message, long expiresAt) {
+                this.message = message;
+                this.expiresAt = expiresAt;
+            }
+        }
     }
-}
\ No newline at end of file
+}
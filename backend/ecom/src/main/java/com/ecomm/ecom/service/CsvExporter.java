@@ -0,0 +1,161 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.repo.ContactInboxRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Streams products (GET /api/products/export) and inquiries
+ * (GET /contact/admin/export) as CSV straight into the response.
+ *
+ * Rows are read through a database cursor in fixed-size chunks and printed as
+ * they arrive, so memory stays flat for any table size and the header goes out
+ * before the first row is read. The product columns are a superset of what
+ * ProductCsvImporter reads, so an export can be uploaded again in upsert mode.
+ *
+ * Each running export holds a connection until the client has downloaded
+ * everything, so only a few may run at once (app.export.max-concurrent).
+ */
+@Component
+public class CsvExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvExporter.class);
+
+    private static final String PRODUCTS_SQL =
+            "SELECT id, sku, name, description, image_url, category, brand, category_key FROM product ORDER BY id";
+
+    private static final CSVFormat PRODUCT_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("id", "sku", "name", "description", "imageUrl", "category", "brand", "categoryKey")
+            .build();
+
+    private static final CSVFormat INQUIRY_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("id", "referenceCode", "createdAt", "status", "read", "archived", "name", "email", "phone",
+                    "productIds", "productNames", "message")
+            .build();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Phone numbers and other plain numbers may start with + or - and stay as they are
+    private static final Pattern PLAIN_NUMBER = Pattern.compile("[+-]?[0-9 ().-]*");
+
+    private final ContactInboxRepository inboxRepository;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore permits;
+
+    public CsvExporter(ContactInboxRepository inboxRepository,
+                       DataSource dataSource,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.export.max-concurrent:2}") int maxConcurrent) {
+        this.inboxRepository = inboxRepository;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(ContactInboxRepository.EXPORT_FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /** Throws TaskRejectedException, before anything is written, when too many exports are running. */
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        export(response, "products-" + LocalDate.now() + ".csv", PRODUCT_FORMAT, csv ->
+                streamingJdbcTemplate.query(PRODUCTS_SQL, (RowCallbackHandler) rs -> print(csv,
+                        rs.getInt("id"),
+                        // Typed in by admins or taken from uploaded CSVs: same treatment as inquiries
+                        defuse(rs.getString("sku")),
+                        defuse(rs.getString("name")),
+                        defuse(rs.getString("description")),
+                        defuse(rs.getString("image_url")),
+                        defuse(rs.getString("category")),
+                        defuse(rs.getString("brand")),
+                        defuse(rs.getString("category_key")))));
+    }
+
+    /** Same filters as the inbox, plus archived inquiries; from/to are inclusive days. */
+    public void exportInquiries(HttpServletResponse response, String status, Boolean read,
+                                LocalDate from, LocalDate to) throws IOException {
+        export(response, "inquiries-" + LocalDate.now() + ".csv", INQUIRY_FORMAT, csv ->
+                inboxRepository.forEachInquiry(status, read,
+                        from != null ? from.atStartOfDay() : null,
+                        to != null ? to.plusDays(1).atStartOfDay() : null,
+                        rs -> print(csv,
+                                rs.getLong("id"),
+                                rs.getString("reference_code"),
+                                rs.getObject("created_at", LocalDateTime.class),
+                                rs.getString("status"),
+                                rs.getBoolean("is_read"),
+                                rs.getBoolean("archived"),
+                                // Submitted by the public: keep spreadsheets from running them as formulas
+                                defuse(rs.getString("name")),
+                                defuse(rs.getString("email")),
+                                defuse(rs.getString("phone")),
+                                rs.getString("product_ids"),
+                                defuse(rs.getString("product_names")),
+                                defuse(rs.getString("message")))));
+    }
+
+    private void export(HttpServletResponse response, String filename, CSVFormat format,
+                        Consumer<CSVPrinter> rows) throws IOException {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("Too many exports running, please retry later");
+        }
+        try {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+            CSVPrinter csv = new CSVPrinter(new BufferedWriter(
+                    new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE), format);
+            csv.flush(); // header goes out now, before the query runs
+
+            long started = System.currentTimeMillis();
+            readOnlyTransaction.executeWithoutResult(status -> rows.accept(csv));
+            csv.close();
+            log.info("Exported {} in {} ms", filename, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            log.info("Export {} stopped, client went away: {}", filename, e.getCause().getMessage());
+        } catch (IOException e) {
+            log.info("Export {} stopped, client went away: {}", filename, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void print(CSVPrinter csv, Object... values) {
+        try {
+            csv.printRecord(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String defuse(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '@' || first == '\t' || first == '\r'
+                || ((first == '+' || first == '-') && !PLAIN_NUMBER.matcher(value).matches());
+        return formula ? "'" + value : value;
+    }
+}
@@ -3,7 +3,9 @@ package com.ecomm.ecom.service;
 import com.ecomm.ecom.model.ContactMessage;
 import com.ecomm.ecom.model.Product;
 import com.ecomm.ecom.repo.ContactMessageRepository;
+import com.ecomm.ecom.repo.ContactProductRepository;
 import com.ecomm.ecom.repo.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,15 +17,22 @@ public class EmailService {
 
     private final ContactMessageRepository contactMessageRepository;
     private final ProductRepository productRepository;
+    private final ContactProductRepository contactProductRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EmailService(ContactMessageRepository contactMessageRepository,
-                        ProductRepository productRepository) {
+                        ProductRepository productRepository,
+                        ContactProductRepository contactProductRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.contactMessageRepository = contactMessageRepository;
         this.productRepository = productRepository;
+        this.contactProductRepository = contactProductRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
-    public ContactMessage sendContactMail(String name,
+    public ContactMessage sendContactMail(String referenceCode,
+                                          String name,
                                           String email,
                                           String phone,
                                           String message,
@@ -31,6 +40,7 @@ public class EmailService {
 
         String productIdsStr = null;
         String productNamesStr = null;
+        List<Integer> linkedIds = List.of();
 
         if (productIds != null && !productIds.isEmpty()) {
             List<Product> products = productRepository.findAllById(productIds);
@@ -40,10 +50,13 @@ public class EmailService {
             productNamesStr = products.stream()
                     .map(Product::getName)
                     .collect(Collectors.joining(", "));
+            linkedIds = products.stream().map(Product::getId).toList();
         }
 
         ContactMessage savedMessage = contactMessageRepository.save(
-                new ContactMessage(name, email, phone, message, productIdsStr, productNamesStr));
+                new ContactMessage(referenceCode, name, email, phone, message, productIdsStr, productNamesStr));
+        contactProductRepository.link(savedMessage.getId(), savedMessage.getCreatedAt(), linkedIds);
+        eventPublisher.publishEvent(InquiryEvent.created(referenceCode, name, savedMessage.getStatus()));
 
         // Emails are sent via EmailJS from frontend - backend only saves the contact message
         return savedMessage;
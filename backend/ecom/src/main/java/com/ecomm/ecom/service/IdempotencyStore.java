@@ -0,0 +1,259 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.dto.ContactRequest;
+import com.ecomm.ecom.exception.IdempotencyConflictException;
+import com.ecomm.ecom.model.ContactMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Suppresses duplicate POST /contact submissions (double clicks, client
+ * retries after a timeout). Requests carrying an Idempotency-Key are matched
+ * on the key; requests without one are matched on a hash of their content,
+ * for a shorter window. A replay gets the original reference code back and
+ * inserts nothing.
+ *
+ * The first request for a key submits; identical requests arriving while it
+ * runs wait for its result instead of submitting again. Failed submissions are
+ * forgotten so the client can retry. Entries live in memory on this instance
+ * only, bounded in number and expiring after their window. A submission still
+ * running is never evicted, since a retry would then submit again; when the
+ * store is full of running submissions, new ones are turned away (503).
+ */
+@Component
+public class IdempotencyStore {
+
+    /** Longer keys are rejected by the controller rather than stored. */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Window keyed;
+    private final Window byContent;
+
+    private final Counter replays;
+    private final Counter submissions;
+
+    @Autowired
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${app.contact.idempotency.max-entries:10000}") int capacity,
+                            @Value("${app.contact.idempotency.key-ttl-minutes:60}") long keyTtlMinutes,
+                            @Value("${app.contact.idempotency.content-ttl-seconds:120}") long contentTtlSeconds) {
+        this(meterRegistry, capacity, keyTtlMinutes, contentTtlSeconds, Clock.systemUTC());
+    }
+
+    // Tests drive expiry through the clock
+    IdempotencyStore(MeterRegistry meterRegistry, int capacity, long keyTtlMinutes, long contentTtlSeconds,
+                     Clock clock) {
+        this.keyed = new Window(capacity, TimeUnit.MINUTES.toMillis(keyTtlMinutes), clock);
+        this.byContent = new Window(capacity, TimeUnit.SECONDS.toMillis(contentTtlSeconds), clock);
+        this.replays = gets(meterRegistry, "hit");
+        this.submissions = gets(meterRegistry, "miss");
+    }
+
+    // A hit is a suppressed duplicate
+    private static Counter gets(MeterRegistry registry, String result) {
+        return Counter.builder("cache.gets")
+                .description("Inquiry submissions checked against the idempotency store")
+                .tag("cache", "contact.idempotency")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Runs submit once per key (or per content, when key is null) within the
+     * window and returns its result; later calls get the same result back.
+     */
+    public Outcome execute(String idempotencyKey, ContactRequest request, Supplier<ContactMessage> submit) {
+        String hash = contentHash(request);
+        boolean hasKey = idempotencyKey != null && !idempotencyKey.isBlank();
+        Window window = hasKey ? keyed : byContent;
+        String key = hasKey ? idempotencyKey : hash;
+
+        Entry created = new Entry(hash);
+        Entry entry = window.putIfAbsent(key, created);
+        boolean owner = entry == created;
+
+        if (!entry.contentHash.equals(hash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+        }
+
+        (owner ? submissions : replays).increment();
+        if (owner) {
+            try {
+                ContactMessage saved = submit.get();
+                Receipt receipt = new Receipt(saved.getReferenceCode(), saved.getId());
+                entry.result.complete(receipt);
+                return new Outcome(receipt, false);
+            } catch (RuntimeException | Error e) {
+                window.remove(key, entry);
+                entry.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return new Outcome(entry.result.join(), true);
+        } catch (CompletionException e) {
+            // The original submission failed; report the same error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Fields are separated by a character that cannot be typed into the form
+    private static String contentHash(ContactRequest request) {
+        StringBuilder content = new StringBuilder()
+                .append(normalize(request.getName())).append('\u0000')
+                .append(normalize(request.getEmail()).toLowerCase(Locale.ROOT)).append('\u0000')
+                .append(normalize(request.getPhone())).append('\u0000')
+                .append(normalize(request.getMessage())).append('\u0000');
+        List<Integer> productIds = request.getProductIds();
+        if (productIds != null) {
+            productIds.stream().filter(Objects::nonNull).sorted().distinct()
+                    .forEach(id -> content.append(id).append(','));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    // Entries with one TTL, in insertion order, so expired ones are always at
+    // the head; the eldest finished entry is also dropped once capacity is
+    // exceeded. Running entries are skipped by both.
+    private static final class Window {
+
+        private final int capacity;
+        private final long ttlMillis;
+        private final Clock clock;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+        private Window(int capacity, long ttlMillis, Clock clock) {
+            this.capacity = capacity;
+            this.ttlMillis = ttlMillis;
+            this.clock = clock;
+        }
+
+        // Returns the entry now stored under key: the given one, or a
+        // concurrent caller's that got there first
+        private synchronized Entry putIfAbsent(String key, Entry entry) {
+            evictExpired();
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (entries.size() >= capacity && !evictEldestFinished()) {
+                throw new TaskRejectedException("Too many inquiries in progress, please retry shortly");
+            }
+            entry.expiresAt = clock.millis() + ttlMillis;
+            entries.put(key, entry);
+            return entry;
+        }
+
+        // Running entries are few (one per request in progress), so the scan is short
+        private boolean evictEldestFinished() {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().result.isDone()) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void remove(String key, Entry entry) {
+            entries.remove(key, entry);
+        }
+
+        private void evictExpired() {
+            long now = clock.millis();
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.expiresAt > now) {
+                    return;
+                }
+                if (entry.result.isDone()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String contentHash;
+        private final CompletableFuture<Receipt> result = new CompletableFuture<>();
+        private long expiresAt;
+
+        private Entry(String contentHash) {
+            this.contentHash = contentHash;
+        }
+    }
+
+    /** What the original submission returned: messageId is null when it was queued. */
+    public static final class Receipt {
+
+        private final String referenceCode;
+        private final Long messageId;
+
+        private Receipt(String referenceCode, Long messageId) {
+            this.referenceCode = referenceCode;
+            this.messageId = messageId;
+        }
+
+        public String getReferenceCode() {
+            return referenceCode;
+        }
+
+        public Long getMessageId() {
+            return messageId;
+        }
+    }
+
+    public static final class Outcome {
+
+        private final Receipt receipt;
+        private final boolean replayed;
+
+        private Outcome(Receipt receipt, boolean replayed) {
+            this.receipt = receipt;
+            this.replayed = replayed;
+        }
+
+        public Receipt getReceipt() {
+            return receipt;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.dto.InquiryAnalytics;
+import com.ecomm.ecom.repo.ContactProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * "Most requested" report for the admin dashboard: top products, brands and
+ * categories by quote requests over a window of days. Aggregated in SQL from
+ * the per-day rollup by default (app.contact.analytics.use-rollup), so the
+ * cost depends on the number of days and products, not inquiries.
+ */
+@Service
+public class InquiryAnalyticsService {
+
+    public static final int DEFAULT_TOP = 10;
+    public static final int MAX_TOP = 100;
+    public static final int DEFAULT_WINDOW_DAYS = 30;
+
+    private final ContactProductRepository repository;
+    private final boolean useRollup;
+
+    public InquiryAnalyticsService(ContactProductRepository repository,
+                                   @Value("${app.contact.analytics.use-rollup:true}") boolean useRollup) {
+        this.repository = repository;
+        this.useRollup = useRollup;
+    }
+
+    /** from/to are inclusive days; the default window is the last 30 days. */
+    public InquiryAnalytics getMostRequested(LocalDate from, LocalDate to, Integer limit) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_WINDOW_DAYS - 1);
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        int top = limit == null ? DEFAULT_TOP : Math.max(1, Math.min(limit, MAX_TOP));
+        LocalDate end = last.plusDays(1);
+
+        return new InquiryAnalytics(first, last,
+                repository.topProducts(first, end, top, useRollup),
+                repository.topBrands(first, end, top, useRollup),
+                repository.topCategories(first, end, top, useRollup, ProductCategorizer.DEFAULT_KEY));
+    }
+}
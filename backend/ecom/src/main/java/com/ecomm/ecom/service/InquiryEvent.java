@@ -0,0 +1,68 @@
+package com.ecomm.ecom.service;
+
+/**
+ * Published when an inquiry is created or changes state. Delivered to the
+ * admin feed once the surrounding transaction has committed.
+ */
+public class InquiryEvent {
+
+    public enum Type { CREATED, STATUS_CHANGED, READ, BULK_UPDATED }
+
+    private final Type type;
+    private final String referenceCode; // null for bulk updates
+    private final String name;          // CREATED only
+    private final String status;        // null when unchanged
+    private final int updated;
+    private final int unreadDelta;
+
+    private InquiryEvent(Type type, String referenceCode, String name, String status, int updated,
+                         int unreadDelta) {
+        this.type = type;
+        this.referenceCode = referenceCode;
+        this.name = name;
+        this.status = status;
+        this.updated = updated;
+        this.unreadDelta = unreadDelta;
+    }
+
+    public static InquiryEvent created(String referenceCode, String name, String status) {
+        return new InquiryEvent(Type.CREATED, referenceCode, name, status, 1, 1);
+    }
+
+    public static InquiryEvent statusChanged(String referenceCode, String status, boolean wasUnread) {
+        return new InquiryEvent(Type.STATUS_CHANGED, referenceCode, null, status, 1, wasUnread ? -1 : 0);
+    }
+
+    public static InquiryEvent read(String referenceCode) {
+        return new InquiryEvent(Type.READ, referenceCode, null, null, 1, -1);
+    }
+
+    /** Many inquiries changed at once; status is null when only read state changed. */
+    public static InquiryEvent bulkUpdated(String status, int updated, int markedRead) {
+        return new InquiryEvent(Type.BULK_UPDATED, null, null, status, updated, -markedRead);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getReferenceCode() {
+        return referenceCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnreadDelta() {
+        return unreadDelta;
+    }
+}
@@ -0,0 +1,240 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.repo.ContactMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live admin feed (GET /contact/admin/feed) over Server-Sent Events.
+ *
+ * Connections are async servlet responses, so an idle subscriber costs a
+ * socket and an emitter, not a thread. Inquiry events are applied after
+ * commit on the single "inquiry-feed" thread, which keeps them in order, and
+ * queued per subscriber; the "inquiry-feed-send" pool writes each queue out
+ * in order. A subscriber that falls max-backlog frames behind, or whose write
+ * takes longer than send-timeout-seconds, is disconnected (clients reconnect),
+ * so one stalled browser never holds up the others.
+ *
+ * The unread count is held in memory and moved by the exact deltas of the
+ * conditional updates in ContactService; it is recounted from the database
+ * at startup and periodically to correct any drift. The recount runs on the
+ * feed thread too, so it never lands between queued events.
+ */
+@Service
+public class InquiryFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(InquiryFeed.class);
+
+    private final ContactMessageRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor sendExecutor;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int maxBacklog;
+    private final long sendTimeoutNanos;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberSlots = new AtomicInteger(); // reserved before a subscriber is added
+    private final AtomicLong unread = new AtomicLong();
+
+    // @Lazy: scheduled beans are created at startup even in fast-start mode;
+    // the repository, and Hibernate behind it, is resolved on first use
+    public InquiryFeed(@Lazy ContactMessageRepository repository,
+                       ObjectMapper objectMapper,
+                       @Qualifier("inquiryFeedSendExecutor") TaskExecutor sendExecutor,
+                       @Value("${app.contact.feed.timeout-minutes:30}") long timeoutMinutes,
+                       @Value("${app.contact.feed.max-subscribers:200}") int maxSubscribers,
+                       @Value("${app.contact.feed.max-backlog:100}") int maxBacklog,
+                       @Value("${app.contact.feed.send-timeout-seconds:5}") long sendTimeoutSeconds) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.sendExecutor = sendExecutor;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxSubscribers = maxSubscribers;
+        this.maxBacklog = maxBacklog;
+        this.sendTimeoutNanos = TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+    }
+
+    /** Opens a subscription, or returns null when the subscriber limit is reached. */
+    public SseEmitter subscribe() throws IOException {
+        if (subscriberSlots.incrementAndGet() > maxSubscribers) {
+            subscriberSlots.decrementAndGet();
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis));
+        try {
+            // Clients reconnect on timeout; start them off with the current count
+            subscriber.emitter.send(SseEmitter.event().name("unread")
+                    .data(objectMapper.writeValueAsString(Map.of("unread", unread.get())), MediaType.APPLICATION_JSON));
+        } catch (IOException | RuntimeException e) {
+            subscriberSlots.decrementAndGet();
+            throw e;
+        }
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    public long getUnread() {
+        return unread.get();
+    }
+
+    @Async("inquiryFeedExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInquiryEvent(InquiryEvent event) throws JsonProcessingException {
+        long count = unread.addAndGet(event.getUnreadDelta());
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType().name().toLowerCase());
+        if (event.getReferenceCode() != null) {
+            payload.put("referenceCode", event.getReferenceCode());
+        } else {
+            payload.put("updated", event.getUpdated());
+        }
+        if (event.getName() != null) {
+            payload.put("name", event.getName());
+        }
+        if (event.getStatus() != null) {
+            payload.put("status", event.getStatus());
+        }
+        payload.put("unread", count);
+
+        broadcast(SseEmitter.event().name("inquiry")
+                .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON));
+    }
+
+    // Keeps proxies from closing idle streams and clears out dead connections
+    @Async("inquiryFeedExecutor")
+    @Scheduled(fixedDelayString = "${app.contact.feed.heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    @Async("inquiryFeedExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.contact.feed.recount-minutes:10}",
+            fixedDelayString = "${app.contact.feed.recount-minutes:10}", timeUnit = TimeUnit.MINUTES)
+    public void recountUnread() {
+        unread.set(repository.countByIsReadFalse());
+    }
+
+    // Built once: a builder appends its terminator each time it is built
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = event.build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queued.incrementAndGet() > maxBacklog) {
+                disconnect(subscriber, maxBacklog + " events behind");
+                continue;
+            }
+            subscriber.backlog.add(frame);
+            schedule(subscriber);
+        }
+    }
+
+    // At most one drain per subscriber at a time keeps its frames in order
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> drain(subscriber));
+        } catch (TaskRejectedException e) {
+            subscriber.draining.set(false);
+            disconnect(subscriber, "send queue full");
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while ((frame = subscriber.backlog.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                long started = System.nanoTime();
+                try {
+                    subscriber.emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    // The container reports the broken connection itself; just stop writing to it
+                    remove(subscriber);
+                    log.debug("Dropping admin feed subscriber: {}", e.getMessage());
+                    return;
+                }
+                if (System.nanoTime() - started > sendTimeoutNanos) {
+                    disconnect(subscriber, "write took " + TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - started) + " ms");
+                    return;
+                }
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // A frame added after the last poll but before draining was cleared
+        if (!subscriber.backlog.isEmpty() && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    // Slow subscriber: end its stream so the client reconnects and starts fresh
+    private void disconnect(Subscriber subscriber, String reason) {
+        if (remove(subscriber)) {
+            log.debug("Disconnecting slow admin feed subscriber: {}", reason);
+            try {
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Could not complete admin feed stream: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberSlots.decrementAndGet();
+            subscriber.backlog.clear();
+            return true;
+        }
+        return false;
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> backlog = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.dto.ProductFacets;
+import com.ecomm.ecom.model.Product;
+import com.ecomm.ecom.repo.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds an immutable, pre-serialized snapshot of the whole product catalog.
+ * Reads never touch the database; every write in ProductService swaps in a
+ * freshly built snapshot once its transaction has committed.
+ *
+ * Each snapshot carries the catalog version it was built from: the highest
+ * change sequence (V10) of any product write or delete. The version comes
+ * from the database, so every instance serving the same catalog hands out
+ * the same strong ETag, and the same Last-Modified (the time of that write
+ * or delete). Writes made through another instance (or by SQL) are
+ * picked up by comparing that version with the database at most every
+ * app.catalog.revalidate-seconds; one request pays for the check and, when
+ * the version moved, the rebuild, while the others keep the current snapshot.
+ *
+ * The snapshot also records the highest product change sequence it contains,
+ * which delta-sync clients use as their first ?since= value.
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductRepository repo;
+    private final ProductCategorizer categorizer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTemplate;
+    private final long revalidateNanos;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    // Not a monitor: load() queries the database while holding it, which would
+    // pin the carrier thread when requests run on virtual threads
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile long checkedAt; // System.nanoTime() of the last version check
+
+    public ProductCatalog(ProductRepository repo,
+                          ProductCategorizer categorizer,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.catalog.revalidate-seconds:5}") long revalidateSeconds) {
+        this.repo = repo;
+        this.categorizer = categorizer;
+        this.objectMapper = objectMapper;
+        this.revalidateNanos = TimeUnit.SECONDS.toNanos(revalidateSeconds);
+
+        // The version and the rows must come from the same database snapshot
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        readTemplate.setReadOnly(true);
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            rebuildLock.lock();
+            try {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    snapshot = load();
+                    current.set(snapshot);
+                }
+                return snapshot;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        if (System.nanoTime() - checkedAt > revalidateNanos && rebuildLock.tryLock()) {
+            try {
+                revalidate();
+            } finally {
+                rebuildLock.unlock();
+            }
+            snapshot = current.get();
+        }
+        return snapshot;
+    }
+
+    // Caller holds rebuildLock. A failed check keeps serving the current snapshot.
+    private void revalidate() {
+        if (System.nanoTime() - checkedAt <= revalidateNanos) {
+            return; // checked by another thread meanwhile
+        }
+        checkedAt = System.nanoTime();
+        try {
+            if (repo.findCatalogVersion() != current.get().getVersion()) {
+                current.set(load());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not revalidate the product catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot. Inside a transaction the rebuild is deferred until
+     * after commit so readers never see rows that may still be rolled back.
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild();
+                }
+            });
+        } else {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            current.set(load());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        checkedAt = System.nanoTime();
+        List<Product> products = new ArrayList<>();
+        long[] lastModified = new long[1];
+        long version = readTemplate.execute(status -> {
+            for (Product p : repo.findAll()) {
+                products.add(detachedCopy(p));
+            }
+            Long modified = repo.findCatalogLastModified();
+            lastModified[0] = modified != null ? modified : 0;
+            return repo.findCatalogVersion();
+        });
+
+        Map<Integer, Product> byId = new HashMap<>(products.size() * 2);
+        List<String> vocabulary = new ArrayList<>(products.size() * 3);
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        Map<String, Long> brandCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        long changeSeq = 0;
+        for (String key : categorizer.keys()) {
+            categoryCounts.put(key, 0L);
+        }
+        for (Product p : products) {
+            byId.put(p.getId(), p);
+            if (p.getChangeSeq() != null) {
+                changeSeq = Math.max(changeSeq, p.getChangeSeq());
+            }
+            vocabulary.add(p.getName());
+            vocabulary.add(p.getBrand());
+            vocabulary.add(p.getCategory());
+            if (p.getCategoryKey() != null) {
+                categoryCounts.merge(p.getCategoryKey(), 1L, Long::sum);
+            }
+            if (p.getBrand() != null && !p.getBrand().isBlank()) {
+                brandCounts.merge(p.getBrand().trim(), 1L, Long::sum);
+            }
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            byte[] facetsJson = objectMapper.writeValueAsBytes(new ProductFacets(categoryCounts, brandCounts));
+            return new Snapshot(Collections.unmodifiableList(products), byId, json, facetsJson,
+                    SpellingDictionary.build(vocabulary), version, "\"c" + version + "\"",
+                    Instant.ofEpochMilli(lastModified[0]), changeSeq);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize product catalog: " + e.getMessage());
+        }
+    }
+
+    // Copy so the snapshot never shares instances with a persistence context
+    private static Product detachedCopy(Product p) {
+        Product copy = new Product(p.getId(), p.getName(), p.getDescription(),
+                p.getImageUrl(), p.getCategory(), p.getBrand());
+        copy.setCategoryKey(p.getCategoryKey());
+        copy.setSku(p.getSku());
+        copy.setChangeSeq(p.getChangeSeq());
+        return copy;
+    }
+
+    public static final class Snapshot {
+
+        private final List<Product> products;
+        private final Map<Integer, Product> byId;
+        private final byte[] json;
+        private final byte[] facetsJson;
+        private final SpellingDictionary spelling;
+        private final long version;
+        private final String etag;
+        private final Instant lastModified;
+        private final long changeSeq;
+
+        private Snapshot(List<Product> products, Map<Integer, Product> byId, byte[] json, byte[] facetsJson,
+                         SpellingDictionary spelling, long version, String etag, Instant lastModified, long changeSeq) {
+            this.products = products;
+            this.byId = byId;
+            this.json = json;
+            this.facetsJson = facetsJson;
+            this.spelling = spelling;
+            this.version = version;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.changeSeq = changeSeq;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public Product findById(int id) {
+            return byId.get(id);
+        }
+
+        /** Vocabulary of product names, brands and categories for search typo correction. */
+        public SpellingDictionary getSpelling() {
+            return spelling;
+        }
+
+        /** Highest change sequence of any product write or delete when this snapshot was read. */
+        public long getVersion() {
+            return version;
+        }
+
+        /** Strong ETag (already quoted) identifying this catalog version. */
+        public String getETag() {
+            return etag;
+        }
+
+        /** When the write or delete behind this version happened, per the database. */
+        public Instant getLastModified() {
+            return lastModified;
+        }
+
+        /** Highest product change sequence included in this snapshot. */
+        public long getChangeSeq() {
+            return changeSeq;
+        }
+
+        /** Catalog already serialized as a JSON array; callers must not modify it. */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /** Per-category and per-brand product counts, already serialized as JSON. */
+        public byte[] getFacetsJson() {
+            return facetsJson;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecomm.ecom.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps a product to one of the storefront category keys (lighting, fans,
+ * switches, cables, accessories). Same rules the frontend used to apply in
+ * Products.jsx: an explicit category wins, otherwise keywords in the name and
+ * description decide, checking more specific categories first.
+ */
+@Component
+public class ProductCategorizer {
+
+    public static final String DEFAULT_KEY = "accessories";
+
+    // Explicit category field matches, in storefront order
+    private static final Map<String, List<String>> CATEGORY_MATCH = new LinkedHashMap<>();
+
+    // Keyword matches on name + description. Fans come before lighting so that
+    // "LED Ceiling Fan" is not classified as a light.
+    private static final Map<String, List<String>> KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        CATEGORY_MATCH.put("lighting", List.of("lighting", "lights", "light"));
+        CATEGORY_MATCH.put("fans", List.of("fans", "fan"));
+        CATEGORY_MATCH.put("switches", List.of("switches", "switch", "sockets", "socket"));
+        CATEGORY_MATCH.put("cables", List.of("cables", "cable", "wiring", "wires"));
+        CATEGORY_MATCH.put("accessories", List.of("accessories", "accessory", "other"));
+
+        KEYWORDS.put("fans", List.of("fan", "ceiling fan", "exhaust fan", "industrial fan",
+                "table fan", "pedestal fan", "ventilation"));
+        KEYWORDS.put("switches", List.of("switch", "socket", "modular", "dimmer", "plug", "board", "regulator"));
+        KEYWORDS.put("cables", List.of("cable", "wire", "wiring", "copper", "electrical wire",
+                "power cable", "conduit", "flex"));
+        KEYWORDS.put("lighting", List.of("light", "lamp", "led", "bulb", "ceiling light", "wall light",
+                "outdoor light", "decorative light", "chandelier", "spotlight", "downlight",
+                "panel light", "tube light", "street light"));
+        KEYWORDS.put("accessories", List.of("mcb", "panel", "distribution", "meter", "fuse", "relay",
+                "contactor", "capacitor", "junction", "box", "tape", "accessory", "accessories"));
+    }
+
+    /** All category keys in storefront order. */
+    public Set<String> keys() {
+        return CATEGORY_MATCH.keySet();
+    }
+
+    public String categorize(String category, String name, String description) {
+
+        if (category != null && !category.isBlank()) {
+            String productCategory = category.toLowerCase(Locale.ROOT).trim();
+            for (Map.Entry<String, List<String>> entry : CATEGORY_MATCH.entrySet()) {
+                for (String match : entry.getValue()) {
+                    if (productCategory.contains(match)) {
+                        return entry.getKey();
+                    }
+                }
+            }
+        }
+
+        String searchText = ((name != null ? name : "") + " "
+                + (description != null ? description : "")).toLowerCase(Locale.ROOT);
+
+        for (Map.Entry<String, List<String>> entry : KEYWORDS.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (searchText.contains(keyword)) {
+                    return entry.getKey();
+                }
+            }
+        }
+
+        return DEFAULT_KEY;
+    }
+}
@@ -0,0 +1,353 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.model.Product;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams a product CSV (name, description, imageUrl, category[, brand][, sku])
+ * into the product table. Records are parsed one at a time and written in
+ * fixed-size JDBC batches, so memory stays bounded by BATCH_SIZE regardless of
+ * file size.
+ *
+ * Product ids are IDENTITY columns, which stops Hibernate from batching inserts;
+ * going through JdbcTemplate lets the driver send each chunk as a single
+ * multi-row statement (reWriteBatchedInserts).
+ *
+ * Every chunk commits on its own. Invalid rows are rejected with their line
+ * number, and a chunk the database refuses is retried row by row so one bad
+ * line never discards the good rows around it.
+ *
+ * INSERT mode, the default, adds every row as a new product, as uploads always
+ * have. Only rows that carry an explicit sku already in the table are skipped
+ * and counted as duplicates (INSERT ... ON CONFLICT (sku) DO NOTHING).
+ *
+ * In UPSERT mode rows are matched on sku, or on naturalKey() when the feed has
+ * no sku for them. The stored content hashes of a chunk
+ * are read first; unchanged rows are skipped without any write, the rest go
+ * through INSERT ... ON CONFLICT (sku) DO UPDATE.
+ */
+@Component
+public class ProductCsvImporter {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO product (sku, name, description, image_url, category, brand, category_key, content_hash) "
+                    + "VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_SQL = INSERT_PREFIX + INSERT_ROW;
+
+    // INSERT mode sends each chunk as one multi-row statement; RETURNING tells
+    // the new rows from the duplicates. Rows without a sku never conflict.
+    private static final String INSERT_NEW_SUFFIX = " ON CONFLICT (sku) DO NOTHING RETURNING sku";
+
+    static final String UPSERT_SQL = INSERT_SQL
+            + " ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description,"
+            + " image_url = EXCLUDED.image_url, category = EXCLUDED.category, brand = EXCLUDED.brand,"
+            + " category_key = EXCLUDED.category_key, content_hash = EXCLUDED.content_hash";
+
+    private static final String EXISTING_HASHES_SQL = "SELECT sku, content_hash FROM product WHERE sku = ANY(?)";
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader()
+            .setSkipHeaderRecord(true)
+            .build();
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "description", "imageUrl", "category");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCategorizer categorizer;
+
+    public ProductCsvImporter(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ProductCategorizer categorizer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categorizer = categorizer;
+    }
+
+    /**
+     * Key UPSERT mode matches on when a feed has no sku. V9 backfilled existing
+     * rows with the same expression, so keep the two in step.
+     */
+    public static String naturalKey(String brand, String name) {
+        return trimSpaces(brand == null ? "" : brand).toLowerCase(Locale.ROOT)
+                + "|" + trimSpaces(name == null ? "" : name).toLowerCase(Locale.ROOT);
+    }
+
+    /** Imports every record, reporting progress and rejected rows on the job. */
+    public void importCsv(Reader reader, ProductImportJob job) throws IOException {
+
+        CSVParser csvParser = CSV_FORMAT.parse(reader);
+        for (String column : REQUIRED_COLUMNS) {
+            if (!csvParser.getHeaderMap().containsKey(column)) {
+                throw new IllegalArgumentException("CSV is missing required column: " + column);
+            }
+        }
+
+        MessageDigest digest = sha256();
+        List<Row> chunk = new ArrayList<>(BATCH_SIZE);
+
+        for (CSVRecord record : csvParser) {
+            long line = record.getRecordNumber() + 1; // header is line 1
+
+            if (!record.isConsistent()) {
+                job.reject(line, "Expected " + csvParser.getHeaderMap().size()
+                        + " columns but found " + record.size());
+                continue;
+            }
+            Product product = toProduct(record);
+            if (job.getMode() == ProductImportJob.Mode.UPSERT && product.getSku() == null) {
+                product.setSku(naturalKey(product.getBrand(), product.getName()));
+            }
+            String problem = validate(product);
+            if (problem != null) {
+                job.reject(line, problem);
+                continue;
+            }
+            product.setContentHash(contentHash(product, digest));
+
+            chunk.add(new Row(line, product));
+            if (chunk.size() == BATCH_SIZE) {
+                commitChunk(chunk, job);
+                chunk.clear();
+            }
+        }
+        commitChunk(chunk, job);
+    }
+
+    public Product toProduct(CSVRecord record) {
+        Product product = new Product();
+        product.setName(record.get("name"));
+        product.setDescription(record.get("description"));
+        product.setImageUrl(record.get("imageUrl"));
+        product.setCategory(record.get("category"));
+        if (record.isMapped("brand")) {
+            product.setBrand(record.get("brand"));
+        }
+        String sku = record.isMapped("sku") ? record.get("sku").trim() : "";
+        product.setSku(sku.isEmpty() ? null : sku);
+        product.setCategoryKey(categorizer.categorize(
+                product.getCategory(), product.getName(), product.getDescription()));
+        return product;
+    }
+
+    // Mirrors the column limits in the product table
+    private static String validate(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "name is required";
+        }
+        if (product.getName().length() > 255) {
+            return "name is longer than 255 characters";
+        }
+        if (product.getImageUrl() != null && product.getImageUrl().length() > 500) {
+            return "imageUrl is longer than 500 characters";
+        }
+        if (product.getCategory() != null && product.getCategory().length() > 100) {
+            return "category is longer than 100 characters";
+        }
+        if (product.getBrand() != null && product.getBrand().length() > 100) {
+            return "brand is longer than 100 characters";
+        }
+        if (product.getSku() != null && product.getSku().length() > 400) {
+            return "sku is longer than 400 characters";
+        }
+        return null;
+    }
+
+    private void commitChunk(List<Row> chunk, ProductImportJob job) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Row> rows = job.getMode() == ProductImportJob.Mode.UPSERT ? lastRowPerSku(chunk, job) : chunk;
+        try {
+            Counts counts = transactionTemplate.execute(status -> write(rows, job.getMode()));
+            counts.applyTo(job);
+        } catch (DataAccessException e) {
+            // Isolate the offending rows; the rest of the chunk still goes in
+            for (Row row : rows) {
+                try {
+                    Counts counts = transactionTemplate.execute(status -> write(List.of(row), job.getMode()));
+                    counts.applyTo(job);
+                } catch (DataAccessException rowError) {
+                    job.reject(row.line, rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    // One statement cannot upsert the same key twice, so the later line wins
+    private static List<Row> lastRowPerSku(List<Row> chunk, ProductImportJob job) {
+        Map<String, Row> bySku = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            Row previous = bySku.put(row.product.getSku(), row);
+            if (previous != null) {
+                job.reject(previous.line, "Duplicate sku, superseded by line " + row.line);
+            }
+        }
+        return bySku.size() == chunk.size() ? chunk : new ArrayList<>(bySku.values());
+    }
+
+    private Counts write(List<Row> rows, ProductImportJob.Mode mode) {
+        Counts counts = new Counts();
+
+        if (mode == ProductImportJob.Mode.INSERT) {
+            // A sku repeated within the chunk is inserted once, for its first line
+            counts.inserted = insertNew(rows);
+            counts.duplicates = rows.size() - counts.inserted;
+            return counts;
+        }
+
+        Map<String, String> existing = existingHashes(rows);
+        List<Row> changed = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String sku = row.product.getSku();
+            if (!existing.containsKey(sku)) {
+                counts.inserted++;
+                changed.add(row);
+            } else if (row.product.getContentHash().equals(existing.get(sku))) {
+                counts.unchanged++;
+            } else {
+                counts.updated++;
+                changed.add(row);
+            }
+        }
+        batch(UPSERT_SQL, changed);
+        return counts;
+    }
+
+    private Map<String, String> existingHashes(List<Row> rows) {
+        String[] skus = new String[rows.size()];
+        for (int i = 0; i < skus.length; i++) {
+            skus[i] = rows.get(i).product.getSku();
+        }
+        Map<String, String> hashes = new HashMap<>(rows.size() * 2);
+        jdbcTemplate.query(EXISTING_HASHES_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", skus)),
+                rs -> {
+                    hashes.put(rs.getString(1), rs.getString(2));
+                });
+        return hashes;
+    }
+
+    // One multi-row INSERT; returns how many rows were actually inserted
+    private int insertNew(List<Row> rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * 26
+                + INSERT_NEW_SUFFIX.length());
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * 8];
+        int i = 0;
+        for (Row row : rows) {
+            Product p = row.product;
+            sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+            args[i++] = p.getSku();
+            args[i++] = p.getName();
+            args[i++] = p.getDescription();
+            args[i++] = p.getImageUrl();
+            args[i++] = p.getCategory();
+            args[i++] = p.getBrand();
+            args[i++] = p.getCategoryKey();
+            args[i++] = p.getContentHash();
+        }
+        sql.append(INSERT_NEW_SUFFIX);
+        return jdbcTemplate.queryForList(sql.toString(), String.class, args).size();
+    }
+
+    private void batch(String sql, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            Product p = row.product;
+            ps.setString(1, p.getSku());
+            ps.setString(2, p.getName());
+            ps.setString(3, p.getDescription());
+            ps.setString(4, p.getImageUrl());
+            ps.setString(5, p.getCategory());
+            ps.setString(6, p.getBrand());
+            ps.setString(7, p.getCategoryKey());
+            ps.setString(8, p.getContentHash());
+        });
+    }
+
+    private static String contentHash(Product p, MessageDigest digest) {
+        digest.reset();
+        for (String field : new String[]{p.getName(), p.getDescription(), p.getImageUrl(),
+                p.getCategory(), p.getBrand()}) {
+            if (field != null) {
+                digest.update(field.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0); // field separator, also marks null vs ""
+            digest.update((byte) (field == null ? 0 : 1));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // PostgreSQL trim() only strips spaces
+    private static String trimSpaces(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return value.substring(start, end);
+    }
+
+    private static final class Row {
+
+        private final long line;
+        private final Product product;
+
+        private Row(long line, Product product) {
+            this.line = line;
+            this.product = product;
+        }
+    }
+
+    private static final class Counts {
+
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int duplicates;
+
+        private void applyTo(ProductImportJob job) {
+            job.inserted(inserted);
+            job.updated(updated);
+            job.unchanged(unchanged);
+            job.duplicates(duplicates);
+        }
+    }
+}
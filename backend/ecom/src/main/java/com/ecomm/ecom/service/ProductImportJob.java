@@ -0,0 +1,210 @@
+package com.ecomm.ecom.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Progress of one background CSV import. Updated by the import thread and
+ * read concurrently by the status endpoint.
+ */
+public class ProductImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public enum Mode {
+        INSERT, // every row becomes a new product, except explicit skus already in the table
+        UPSERT  // rows are matched on sku or brand|name; unchanged rows are skipped
+    }
+
+    // Only the first rejections are kept with details; all are counted
+    public static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private final String id;
+    private final String fileName;
+    private final Mode mode;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsUnchanged = new AtomicLong();
+    private final AtomicLong rowsDuplicate = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<RejectedRow> rejections = new ArrayList<>();
+    private final LongConsumer rowsListener;
+
+    public ProductImportJob(String id, String fileName, Mode mode) {
+        this(id, fileName, mode, rows -> { });
+    }
+
+    /** rowsListener is told of every processed row as it happens (import throughput metric). */
+    public ProductImportJob(String id, String fileName, Mode mode, LongConsumer rowsListener) {
+        this.id = id;
+        this.fileName = fileName;
+        this.mode = mode;
+        this.rowsListener = rowsListener;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    void inserted(int rows) {
+        rowsProcessed.addAndGet(rows);
+        rowsInserted.addAndGet(rows);
+        rowsListener.accept(rows);
+    }
+
+    void updated(int rows) {
+        rowsProcessed.addAndGet(rows);
+        rowsUpdated.addAndGet(rows);
+        rowsListener.accept(rows);
+    }
+
+    void unchanged(int rows) {
+        rowsProcessed.addAndGet(rows);
+        rowsUnchanged.addAndGet(rows);
+        rowsListener.accept(rows);
+    }
+
+    // INSERT mode: the sku is already in the catalog
+    void duplicates(int rows) {
+        rowsProcessed.addAndGet(rows);
+        rowsDuplicate.addAndGet(rows);
+        rowsListener.accept(rows);
+    }
+
+    void reject(long line, String reason) {
+        rowsProcessed.incrementAndGet();
+        rowsListener.accept(1);
+        if (rowsRejected.incrementAndGet() <= MAX_REPORTED_REJECTIONS) {
+            synchronized (rejections) {
+                rejections.add(new RejectedRow(line, reason));
+            }
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    /** Rows written to the database (inserted + updated). */
+    public long getRowsImported() {
+        return rowsInserted.get() + rowsUpdated.get();
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    public long getRowsUnchanged() {
+        return rowsUnchanged.get();
+    }
+
+    public long getRowsDuplicate() {
+        return rowsDuplicate.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public long getRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return rowsProcessed.get() * 1000 / millis;
+    }
+
+    public List<RejectedRow> getRejections() {
+        synchronized (rejections) {
+            return List.copyOf(rejections);
+        }
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public static class RejectedRow {
+
+        private final long line;
+        private final String reason;
+
+        public RejectedRow(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecomm.ecom.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs CSV product imports as background jobs on the bounded import executor
+ * and keeps the status of recent jobs for the status endpoint.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    // Finished jobs beyond this are forgotten, oldest first
+    private static final int MAX_RETAINED_JOBS = 50;
+
+    private final ProductCsvImporter csvImporter;
+    private final ProductCatalog catalog;
+    private final TaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportService(ProductCsvImporter csvImporter,
+                                ProductCatalog catalog,
+                                @Qualifier("productImportExecutor") TaskExecutor executor,
+                                MeterRegistry meterRegistry) {
+        this.csvImporter = csvImporter;
+        this.catalog = catalog;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Spools the upload to a temp file (the multipart body is gone once the
+     * request ends) and queues the import. Throws TaskRejectedException when
+     * the import queue is full.
+     */
+    public ProductImportJob submit(MultipartFile file, ProductImportJob.Mode mode) throws IOException {
+
+        Path spool = Files.createTempFile("product-import-", ".csv");
+        file.transferTo(spool);
+
+        // rate(product_import_rows_total) is the import throughput in rows per second
+        Counter rows = Counter.builder("product.import.rows")
+                .description("CSV rows processed by product imports")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+        ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), mode,
+                rows::increment);
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+
+        try {
+            executor.execute(() -> run(job, spool));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+        return job;
+    }
+
+    public ProductImportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(ProductImportJob job, Path spool) {
+        job.start();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            csvImporter.importCsv(reader, job);
+            job.complete();
+        } catch (Exception e) {
+            // Chunks committed before the failure stay in place
+            log.warn("Product import {} failed after {} rows: {}", job.getId(), job.getRowsProcessed(), e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("product.import")
+                    .description("Duration of product imports")
+                    .tag("mode", job.getMode().name())
+                    .tag("status", job.getStatus().name())
+                    .register(meterRegistry));
+            if (job.getRowsImported() > 0) {
+                catalog.refresh();
+            }
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", spool);
+            }
+        }
+    }
+
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - MAX_RETAINED_JOBS;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ProductImportJob::isFinished)
+                .sorted(Comparator.comparing(ProductImportJob::getSubmittedAt))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+}
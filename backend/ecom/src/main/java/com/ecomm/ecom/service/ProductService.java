@@ -1,92 +1,258 @@
 package com.ecomm.ecom.service;
 
+import com.ecomm.ecom.dto.ProductChanges;
+import com.ecomm.ecom.dto.ProductLookup;
+import com.ecomm.ecom.dto.ProductPage;
+import com.ecomm.ecom.exception.DuplicateSkuException;
+import com.ecomm.ecom.exception.NotFoundException;
 import com.ecomm.ecom.model.Product;
 import com.ecomm.ecom.repo.ProductRepository;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 @Service
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final int DEFAULT_SEARCH_SIZE = 20;
+    public static final int MAX_SEARCH_SIZE = 50;
+    public static final int MAX_SEARCH_RESULTS = 500;
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    public static final int DEFAULT_CHANGES_SIZE = 1000;
+    public static final int MAX_CHANGES_SIZE = 5000;
+
+    public static final int MAX_LOOKUP_IDS = 200;
+
+    private static final String SKU_INDEX = "idx_product_sku"; // V9
+
     private final ProductRepository repo;
+    private final ProductCatalog catalog;
+    private final ProductCategorizer categorizer;
 
-    public ProductService(ProductRepository repo) {
+    public ProductService(ProductRepository repo,
+                          ProductCatalog catalog,
+                          ProductCategorizer categorizer) {
         this.repo = repo;
+        this.catalog = catalog;
+        this.categorizer = categorizer;
     }
 
     public Product create(Product product) {
-        return repo.save(product);
+        // Only an explicit sku is kept: products created by hand may share a
+        // brand and name, so they are not keyed like upserted feed rows
+        if (product.getSku() != null) {
+            product.setSku(product.getSku().isBlank() ? null : product.getSku().trim());
+        }
+        product.setContentHash(null);
+        assignCategoryKey(product);
+        Product saved = save(product);
+        catalog.refresh();
+        return saved;
     }
 
     public List<Product> getAll() {
-        return repo.findAll();
+        return catalog.snapshot().getProducts();
+    }
+
+    public ProductCatalog.Snapshot getCatalog() {
+        return catalog.snapshot();
+    }
+
+    public ProductPage getPage(Integer cursor, Integer limit, String categoryKey, String brand) {
+
+        int afterId = cursor != null ? cursor : 0;
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists
+        Limit fetch = Limit.of(pageSize + 1);
+        boolean hasCategory = categoryKey != null && !categoryKey.isBlank();
+        boolean hasBrand = brand != null && !brand.isBlank();
+
+        List<Product> rows;
+        if (hasCategory && hasBrand) {
+            rows = repo.findByCategoryKeyAndBrandAndIdGreaterThanOrderByIdAsc(categoryKey, brand, afterId, fetch);
+        } else if (hasCategory) {
+            rows = repo.findByCategoryKeyAndIdGreaterThanOrderByIdAsc(categoryKey, afterId, fetch);
+        } else if (hasBrand) {
+            rows = repo.findByBrandAndIdGreaterThanOrderByIdAsc(brand, afterId, fetch);
+        } else {
+            rows = repo.findByIdGreaterThanOrderByIdAsc(afterId, fetch);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<Product> items = rows.subList(0, pageSize);
+        return new ProductPage(items, items.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Ranked search over name, description, brand and category. Misspelled terms
+     * are corrected against the catalog vocabulary first. The cursor is the number
+     * of results already returned; results stop after MAX_SEARCH_RESULTS.
+     */
+    public ProductPage search(String q, Integer cursor, Integer limit) {
+
+        if (q == null || q.isBlank()) {
+            return new ProductPage(List.of(), null);
+        }
+        String query = q.trim();
+        if (query.length() > MAX_QUERY_LENGTH) {
+            query = query.substring(0, MAX_QUERY_LENGTH);
+        }
+
+        int offset = cursor != null ? Math.max(0, cursor) : 0;
+        int pageSize = limit == null ? DEFAULT_SEARCH_SIZE : Math.max(1, Math.min(limit, MAX_SEARCH_SIZE));
+        pageSize = Math.min(pageSize, MAX_SEARCH_RESULTS - offset);
+        if (pageSize <= 0) {
+            return new ProductPage(List.of(), null);
+        }
+
+        ProductCatalog.Snapshot snapshot = catalog.snapshot();
+        String tsQuery = snapshot.getSpelling().toTsQuery(query);
+        if (tsQuery == null) {
+            return new ProductPage(List.of(), null);
+        }
+
+        List<Integer> ids = repo.searchIds(tsQuery, pageSize + 1, offset);
+        List<Product> items = new ArrayList<>(Math.min(ids.size(), pageSize));
+        for (int i = 0; i < ids.size() && i < pageSize; i++) {
+            Product product = snapshot.findById(ids.get(i));
+            if (product != null) { // deleted since the snapshot was taken
+                items.add(product);
+            }
+        }
+
+        Integer next = ids.size() > pageSize && offset + pageSize < MAX_SEARCH_RESULTS
+                ? offset + pageSize : null;
+        return new ProductPage(items, next);
+    }
+
+    /**
+     * Ids created, updated or deleted after the given change sequence number.
+     * Start from the X-Catalog-Seq header of GET /api/products (or 0) and keep
+     * passing back the returned next value.
+     */
+    public ProductChanges getChanges(Long since, Integer limit) {
+
+        long after = since != null ? Math.max(0, since) : 0;
+        int batchSize = limit == null ? DEFAULT_CHANGES_SIZE : Math.max(1, Math.min(limit, MAX_CHANGES_SIZE));
+
+        List<ProductRepository.Change> rows = repo.findChangesSince(after, batchSize + 1);
+        boolean hasMore = rows.size() > batchSize;
+
+        List<Integer> changed = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        long next = after;
+        for (int i = 0; i < rows.size() && i < batchSize; i++) {
+            ProductRepository.Change row = rows.get(i);
+            (row.getDeleted() ? deleted : changed).add(row.getId());
+            next = row.getChangeSeq();
+        }
+        return new ProductChanges(changed, deleted, next, hasMore);
     }
 
     public Product getById(int id) {
-        return repo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        return getById(catalog.snapshot(), id);
+    }
+
+    /** Same, from a snapshot the caller already holds (e.g. for its ETag). */
+    public Product getById(ProductCatalog.Snapshot snapshot, int id) {
+        Product product = snapshot.findById(id);
+        if (product == null) {
+            throw new NotFoundException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    /** Products for a set of ids, served from the catalog snapshot in one pass. */
+    public ProductLookup getByIds(List<Integer> ids) {
+        return getByIds(catalog.snapshot(), ids);
+    }
+
+    public ProductLookup getByIds(ProductCatalog.Snapshot snapshot, List<Integer> ids) {
+        List<Product> items = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            Product product = id != null ? snapshot.findById(id) : null;
+            if (product != null) {
+                items.add(product);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        return new ProductLookup(items, missing);
     }
 
     public Product update(int id, Product updatedProduct) {
 
-        Product existing = getById(id);
+        Product existing = repo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
 
         existing.setName(updatedProduct.getName());
         existing.setDescription(updatedProduct.getDescription());
         existing.setImageUrl(updatedProduct.getImageUrl());
         existing.setCategory(updatedProduct.getCategory());
         existing.setBrand(updatedProduct.getBrand());
+        if (updatedProduct.getSku() != null && !updatedProduct.getSku().isBlank()) {
+            existing.setSku(updatedProduct.getSku().trim());
+        }
+        // Manual edits diverge from the last feed, so the next upsert rewrites the row
+        existing.setContentHash(null);
+        assignCategoryKey(existing);
 
-        return repo.save(existing);
+        Product saved = save(existing);
+        catalog.refresh();
+        return saved;
+    }
+
+    // A clash on the sku index is the client's mistake (409); any other
+    // integrity violation is ours and stays a 500
+    private Product save(Product product) {
+        try {
+            return repo.save(product);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && SKU_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+                throw new DuplicateSkuException(product.getSku());
+            }
+            throw e;
+        }
     }
 
     public void delete(int id) {
         repo.deleteById(id);
+        catalog.refresh();
     }
 
-    // ===============================
-    // CSV UPLOAD METHOD
-    // ===============================
-
-    @Transactional
-    public void uploadProductsFromCsv(MultipartFile file) {
-
-        try (
-                BufferedReader reader =
-                        new BufferedReader(new InputStreamReader(file.getInputStream()));
-                CSVParser csvParser =
-                        new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())
-        ) {
-
-            List<Product> products = new ArrayList<>();
-
-            for (CSVRecord record : csvParser) {
-
-                Product product = new Product();
-                product.setName(record.get("name"));
-                product.setDescription(record.get("description"));
-                product.setImageUrl(record.get("imageUrl"));
-                product.setCategory(record.get("category"));
-                try {
-                    product.setBrand(record.get("brand"));
-                } catch (Exception ignored) {}
-
-                products.add(product);
-            }
-
-            repo.saveAll(products);
+    private void assignCategoryKey(Product product) {
+        product.setCategoryKey(categorizer.categorize(
+                product.getCategory(), product.getName(), product.getDescription()));
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to upload CSV file: " + e.getMessage());
+    /**
+     * Classifies rows that were written before category keys existed.
+     * A no-op once every product has a key.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCategoryKeys() {
+        List<Product> pending = repo.findByCategoryKeyIsNull();
+        if (pending.isEmpty()) {
+            return;
         }
+        pending.forEach(this::assignCategoryKey);
+        repo.saveAll(pending);
+        catalog.refresh();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.ecomm.ecom.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a tracking lookup can possibly match an inquiry, so typos
+ * and guessed codes are answered without a database query.
+ *
+ * A Bloom filter is built from every reference code in contact_message and
+ * contact_message_archive and
+ * extended with each code this instance issues. Codes dated more than a day
+ * before the filter was built are known exactly. Newer codes may have been
+ * issued by another instance, and may still sit in its write-behind queue, so
+ * for those a valid check character is enough to go to the database.
+ *
+ * The filter is built on the scheduler thread right after startup and again
+ * every tracking-filter-rebuild-hours, never on a request thread; until the
+ * first build finishes, every well-formed code goes to the database.
+ */
+@Component
+public class ReferenceCodeFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceCodeFilter.class);
+
+    private static final String ALL_CODES_SQL = "SELECT reference_code FROM contact_message "
+            + "UNION ALL SELECT reference_code FROM contact_message_archive";
+    private static final String COUNT_SQL = "SELECT (SELECT count(*) FROM contact_message) "
+            + "+ (SELECT count(*) FROM contact_message_archive)";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 10_000;
+    private static final int MAX_CODE_LENGTH = 24;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Filter current;
+
+    public ReferenceCodeFilter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean mightExist(String referenceCode) {
+        if (!isWellFormed(referenceCode)) {
+            return false;
+        }
+        Filter filter = current;
+        if (filter == null || filter.codes.mightContain(referenceCode)) {
+            return true; // not built yet: the database decides
+        }
+        if (day(referenceCode) < filter.exactBefore) {
+            return false;
+        }
+        return ReferenceCodeGenerator.hasValidCheckChar(referenceCode);
+    }
+
+    /** Records a code issued by this instance. */
+    public void add(String referenceCode) {
+        Filter filter = current;
+        if (filter != null) {
+            filter.codes.add(referenceCode);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.contact.tracking-filter-rebuild-hours:24}",
+            timeUnit = TimeUnit.HOURS)
+    public void rebuild() {
+        try {
+            current = build();
+        } catch (DataAccessException e) {
+            // Keep the previous filter (or none: every lookup goes to the database)
+            log.warn("Could not build reference code filter: {}", e.getMessage());
+        }
+    }
+
+    private Filter build() {
+        long started = System.currentTimeMillis();
+        // Another instance may not have flushed yesterday's codes yet
+        int exactBefore = Integer.parseInt(LocalDate.now().minusDays(1).format(DateTimeFormatter.BASIC_ISO_DATE));
+
+        Integer count = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class);
+        BloomFilter codes = new BloomFilter(Math.max(MIN_CAPACITY, (count == null ? 0 : count) * 2),
+                FALSE_POSITIVE_RATE);
+        jdbcTemplate.query(ALL_CODES_SQL, rs -> {
+            codes.add(rs.getString(1));
+        });
+
+        log.info("Built reference code filter over {} inquiries in {} ms", count, System.currentTimeMillis() - started);
+        return new Filter(codes, exactBefore);
+    }
+
+    // SE-YYYYMMDD- followed by upper-case letters and digits
+    private static boolean isWellFormed(String code) {
+        if (code == null || code.length() < 16 || code.length() > MAX_CODE_LENGTH
+                || !code.startsWith("SE-") || code.charAt(11) != '-') {
+            return false;
+        }
+        for (int i = 3; i < 11; i++) {
+            if (code.charAt(i) < '0' || code.charAt(i) > '9') {
+                return false;
+            }
+        }
+        for (int i = 12; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int day(String code) {
+        int day = 0;
+        for (int i = 3; i < 11; i++) {
+            day = day * 10 + (code.charAt(i) - '0');
+        }
+        return day;
+    }
+
+    private static final class Filter {
+
+        private final BloomFilter codes;
+        private final int exactBefore; // yyyymmdd; codes dated earlier are all in the filter
+
+        private Filter(BloomFilter codes, int exactBefore) {
+            this.codes = codes;
+            this.exactBefore = exactBefore;
+        }
+    }
+}
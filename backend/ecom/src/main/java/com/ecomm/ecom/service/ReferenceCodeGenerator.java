@@ -0,0 +1,178 @@
+package com.ecomm.ecom.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Issues inquiry reference codes of the form SE-YYYYMMDD-XXXX.
+ *
+ * The suffix encodes a per-day counter: 3 Crockford base-32 characters plus a
+ * Luhn mod 32 check character, widening by one character once a day passes
+ * 32,768 codes. Counter values are reserved from contact_reference_counter
+ * in blocks, so codes are unique across instances and a request only reaches
+ * the database once per block. The counter is run through a keyed bijection
+ * before encoding so consecutive inquiries do not get consecutive codes; this
+ * is obfuscation, not cryptography.
+ */
+@Component
+public class ReferenceCodeGenerator {
+
+    // Crockford base-32: no I, L, O or U
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int MIN_DATA_CHARS = 3;
+    private static final int PREFIX_LENGTH = "SE-YYYYMMDD-".length();
+
+    // Reserves [next_value - block, next_value) for the day; runs in its own transaction
+    private static final String RESERVE_BLOCK_SQL = """
+            INSERT INTO contact_reference_counter AS c (day, next_value) VALUES (?, ?)
+            ON CONFLICT (day) DO UPDATE SET next_value = c.next_value + EXCLUDED.next_value
+            RETURNING next_value
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final long secret;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private LocalDate day;
+    private long dayEndsAt;
+    private char[] prefix;
+    private long dayKey;
+    private long next;
+    private long blockEnd;
+
+    public ReferenceCodeGenerator(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.contact.reference-block-size:32}") int blockSize,
+                                  @Value("${app.contact.reference-secret:neekan}") String secret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.secret = mix(secret.hashCode());
+    }
+
+    public String next() {
+        long now = System.currentTimeMillis();
+        long value;
+        char[] datePrefix;
+        long key;
+
+        lock.lock();
+        try {
+            if (day == null || now >= dayEndsAt) {
+                startDay(LocalDate.now(zone));
+            }
+            if (next >= blockEnd) {
+                reserveBlock();
+            }
+            value = next++;
+            datePrefix = prefix;
+            key = dayKey;
+        } finally {
+            lock.unlock();
+        }
+        return format(datePrefix, value, key);
+    }
+
+    private void startDay(LocalDate today) {
+        day = today;
+        dayEndsAt = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        prefix = ("SE-" + today.toString().replace("-", "") + "-").toCharArray();
+        dayKey = mix(secret ^ today.toEpochDay());
+        next = 0;
+        blockEnd = 0;
+    }
+
+    private void reserveBlock() {
+        // A separate transaction: a rolled-back caller must not release a block we keep using
+        Long end = newTransaction.execute(status ->
+                jdbcTemplate.queryForObject(RESERVE_BLOCK_SQL, Long.class, day, blockSize));
+        next = end - blockSize;
+        blockEnd = end;
+    }
+
+    // ===============================
+    // ENCODING
+    // ===============================
+
+    private static String format(char[] datePrefix, long value, long key) {
+        int dataChars = MIN_DATA_CHARS;
+        while (value >= 1L << (5 * dataChars)) {
+            dataChars++;
+        }
+        int bits = 5 * dataChars;
+        long code = scramble(value, bits, key);
+
+        char[] out = new char[PREFIX_LENGTH + dataChars + 1];
+        System.arraycopy(datePrefix, 0, out, 0, PREFIX_LENGTH);
+        for (int i = dataChars - 1; i >= 0; i--) {
+            out[PREFIX_LENGTH + i] = ALPHABET[(int) (code & 31)];
+            code >>>= 5;
+        }
+        out[out.length - 1] = checkChar(out, PREFIX_LENGTH, dataChars);
+        return new String(out);
+    }
+
+    // Bijection on [0, 2^bits): odd multipliers and xor-shifts are invertible mod 2^bits
+    static long scramble(long value, int bits, long key) {
+        long mask = (1L << bits) - 1;
+        long x = (value * 0x9E3779B97F4A7C15L) & mask;
+        x ^= x >>> (bits / 2);
+        x = (x * 0xBF58476D1CE4E5B9L) & mask;
+        return (x ^ key) & mask;
+    }
+
+    /** True when the suffix of an SE-YYYYMMDD-XXXX code ends in a matching check character. */
+    static boolean hasValidCheckChar(String code) {
+        int dataChars = code.length() - PREFIX_LENGTH - 1;
+        if (dataChars < MIN_DATA_CHARS) {
+            return false;
+        }
+        char[] chars = code.toCharArray();
+        for (int i = PREFIX_LENGTH; i < chars.length; i++) {
+            if (digit(chars[i]) < 0) {
+                return false;
+            }
+        }
+        return checkChar(chars, PREFIX_LENGTH, dataChars) == chars[chars.length - 1];
+    }
+
+    // Luhn mod N over the base-32 digits (catches single typos and most transpositions)
+    private static char checkChar(char[] chars, int from, int length) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = from + length - 1; i >= from; i--) {
+            int addend = factor * digit(chars[i]);
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / 32 + addend % 32;
+        }
+        return ALPHABET[(32 - sum % 32) % 32];
+    }
+
+    private static int digit(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
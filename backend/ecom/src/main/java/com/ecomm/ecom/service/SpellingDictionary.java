@@ -0,0 +1,147 @@
+package com.ecomm.ecom.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Words used in product names, brands and categories, used to correct typos in
+ * search queries before they reach PostgreSQL. Correcting against this small
+ * dictionary keeps the database side a plain GIN-indexed full-text match.
+ */
+public final class SpellingDictionary {
+
+    private static final int MIN_CORRECTABLE_LENGTH = 4;
+
+    private final Set<String> words;
+    private final String[] wordList; // same words, as an array for the edit-distance scan
+
+    private SpellingDictionary(Set<String> words) {
+        this.words = words;
+        this.wordList = words.toArray(new String[0]);
+    }
+
+    public static SpellingDictionary build(Iterable<String> texts) {
+        Set<String> words = new HashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                for (String token : tokenize(text)) {
+                    if (isAlphabetic(token) && token.length() >= 3) {
+                        words.add(token);
+                    }
+                }
+            }
+        }
+        return new SpellingDictionary(words);
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * Builds a to_tsquery() expression from free text: terms are corrected and
+     * AND-ed, and the last one matches as a prefix so partially typed words
+     * still hit. A half-typed word often looks like a typo of another word
+     * ("ceil" is one edit from "cell"), so the last term keeps its own prefix
+     * and a correction only adds a second one: (ceil:* | cell:*). Returns null
+     * when the input has no usable terms.
+     */
+    public String toTsQuery(String input) {
+        List<String> terms = tokenize(input);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < terms.size() - 1; i++) {
+            query.append(correct(terms.get(i))).append(" & ");
+        }
+        String last = terms.get(terms.size() - 1);
+        String corrected = correct(last);
+        if (corrected.equals(last)) {
+            query.append(last).append(":*");
+        } else {
+            query.append('(').append(last).append(":* | ").append(corrected).append(":*)");
+        }
+        return query.toString();
+    }
+
+    /** Closest known word within 1 edit (2 for words of 8+ chars), or the term itself. */
+    String correct(String term) {
+        if (term.length() < MIN_CORRECTABLE_LENGTH || !isAlphabetic(term) || words.contains(term)) {
+            return term;
+        }
+        int maxEdits = term.length() >= 8 ? 2 : 1;
+        String best = term;
+        int bestDistance = maxEdits + 1;
+        for (String word : wordList) {
+            if (Math.abs(word.length() - term.length()) < bestDistance) {
+                int distance = editDistance(term, word, bestDistance);
+                if (distance < bestDistance) {
+                    best = word;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Lower-cased runs of letters/digits; everything else (including tsquery operators) separates terms
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAlphabetic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Optimal string alignment distance; gives up once every cell in a row reaches the limit
+    private static int editDistance(String a, String b, int limit) {
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                curr[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin >= limit) {
+                return limit;
+            }
+            int[] tmp = prevPrev;
+            prevPrev = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[b.length()];
+    }
+}
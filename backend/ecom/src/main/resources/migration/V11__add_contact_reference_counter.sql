@@ -0,0 +1,7 @@
+-- Per-day counters behind inquiry reference codes (ReferenceCodeGenerator).
+-- Each app instance reserves a block of values per round trip, so codes are
+-- unique across instances without retrying on the unique index.
+CREATE TABLE IF NOT EXISTS contact_reference_counter (
+    day DATE PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
@@ -0,0 +1,14 @@
+-- Admin inbox (GET /contact/admin/inbox): newest first, keyset cursor on (created_at, id).
+-- Each filter gets an index that returns rows already in page order.
+CREATE INDEX IF NOT EXISTS idx_contact_message_created_id
+    ON contact_message(created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_contact_message_status_created_id
+    ON contact_message(status, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_contact_message_unread_created_id
+    ON contact_message(created_at DESC, id DESC) WHERE is_read = FALSE;
+
+-- Superseded by the indexes above
+DROP INDEX IF EXISTS idx_contact_message_created_at;
+DROP INDEX IF EXISTS idx_contact_message_is_read;
@@ -0,0 +1,77 @@
+-- Which products each inquiry asked about, one row per (inquiry, product).
+-- contact_message.product_ids/product_names stay for display; reporting reads
+-- this table. created_at is copied from the inquiry so a time window is a
+-- range scan here without touching contact_message. product_id has no foreign
+-- key: deleting a product must not rewrite inquiry history.
+CREATE TABLE IF NOT EXISTS contact_message_product (
+    contact_message_id BIGINT NOT NULL REFERENCES contact_message(id) ON DELETE CASCADE,
+    product_id INT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (contact_message_id, product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_contact_message_product_created_product
+    ON contact_message_product(created_at, product_id);
+
+-- Backfill from the comma-separated ids, keeping only products that still exist
+INSERT INTO contact_message_product (contact_message_id, product_id, created_at)
+SELECT DISTINCT m.id, p.id, m.created_at
+FROM contact_message m
+CROSS JOIN LATERAL unnest(string_to_array(m.product_ids, ',')) AS ids(value)
+JOIN product p ON p.id = CASE WHEN trim(ids.value) ~ '^[0-9]{1,9}$' THEN trim(ids.value)::INT END
+WHERE m.product_ids IS NOT NULL AND m.product_ids <> ''
+ON CONFLICT DO NOTHING;
+
+-- Requests per product per day, kept current by statement-level triggers so a
+-- report over any span of days reads at most days x products rows, however
+-- many inquiries there are. Each insert statement adds its rows in one pass,
+-- so a write-behind batch of 500 inquiries is one upsert, not 500.
+CREATE TABLE IF NOT EXISTS contact_product_daily (
+    day DATE NOT NULL,
+    product_id INT NOT NULL,
+    requests INT NOT NULL,
+    PRIMARY KEY (day, product_id)
+);
+
+INSERT INTO contact_product_daily (day, product_id, requests)
+SELECT created_at::DATE, product_id, count(*)
+FROM contact_message_product
+GROUP BY 1, 2
+ON CONFLICT (day, product_id) DO UPDATE SET requests = EXCLUDED.requests;
+
+-- Rows are upserted in key order so concurrent writers lock them in the same order
+CREATE OR REPLACE FUNCTION contact_product_daily_add() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO contact_product_daily (day, product_id, requests)
+    SELECT created_at::DATE, product_id, count(*)
+    FROM added
+    GROUP BY 1, 2
+    ORDER BY 1, 2
+    ON CONFLICT (day, product_id)
+        DO UPDATE SET requests = contact_product_daily.requests + EXCLUDED.requests;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION contact_product_daily_remove() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE contact_product_daily d
+    SET requests = d.requests - r.requests
+    FROM (SELECT created_at::DATE AS day, product_id, count(*) AS requests
+          FROM removed GROUP BY 1, 2) r
+    WHERE d.day = r.day AND d.product_id = r.product_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_contact_product_daily_add ON contact_message_product;
+CREATE TRIGGER trg_contact_product_daily_add
+    AFTER INSERT ON contact_message_product
+    REFERENCING NEW TABLE AS added
+    FOR EACH STATEMENT EXECUTE FUNCTION contact_product_daily_add();
+
+DROP TRIGGER IF EXISTS trg_contact_product_daily_remove ON contact_message_product;
+CREATE TRIGGER trg_contact_product_daily_remove
+    AFTER DELETE ON contact_message_product
+    REFERENCING OLD TABLE AS removed
+    FOR EACH STATEMENT EXECUTE FUNCTION contact_product_daily_remove();
@@ -0,0 +1,55 @@
+-- Archival of finished inquiries (see ContactArchiver).
+-- contact_message keeps open and recently closed inquiries; rows that have
+-- been closed and read for long enough move to contact_message_archive, which
+-- is range-partitioned by month of created_at so whole months can be dropped
+-- once they pass the retention period.
+
+-- When status or read state last changed, stamped by trigger so JPQL, bulk
+-- and manual updates all count
+ALTER TABLE contact_message ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+UPDATE contact_message SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE contact_message ALTER COLUMN updated_at SET DEFAULT localtimestamp;
+ALTER TABLE contact_message ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION contact_message_stamp_update() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status IS DISTINCT FROM OLD.status OR NEW.is_read IS DISTINCT FROM OLD.is_read THEN
+        NEW.updated_at := localtimestamp;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_contact_message_stamp_update ON contact_message;
+CREATE TRIGGER trg_contact_message_stamp_update
+    BEFORE UPDATE ON contact_message
+    FOR EACH ROW EXECUTE FUNCTION contact_message_stamp_update();
+
+-- Archive candidates: read inquiries by last change
+CREATE INDEX IF NOT EXISTS idx_contact_message_read_updated
+    ON contact_message(updated_at) WHERE is_read = TRUE;
+
+-- Product links outlive the move so the most-requested report keeps its history
+ALTER TABLE contact_message_product DROP CONSTRAINT IF EXISTS contact_message_product_contact_message_id_fkey;
+
+-- Monthly partitions are created by the archiver before it moves rows into them
+CREATE TABLE IF NOT EXISTS contact_message_archive (
+    id BIGINT NOT NULL,
+    reference_code VARCHAR(50) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    phone VARCHAR(20),
+    message TEXT NOT NULL,
+    product_ids TEXT,
+    product_names TEXT,
+    created_at TIMESTAMP NOT NULL,
+    is_read BOOLEAN NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT localtimestamp,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Tracking falls back to the archive by reference code
+CREATE INDEX IF NOT EXISTS idx_contact_message_archive_reference_code
+    ON contact_message_archive(reference_code);
@@ -0,0 +1,9 @@
+-- Single status updates used to store the status as sent ("closed") while bulk
+-- updates upper-cased it ("CLOSED"); inbox and archive filters match exactly.
+UPDATE contact_message
+SET status = upper(trim(status))
+WHERE status <> upper(trim(status));
+
+UPDATE contact_message_archive
+SET status = upper(trim(status))
+WHERE status <> upper(trim(status));
@@ -0,0 +1,2 @@
+-- Indexes for keyset-paginated product listing (WHERE ... AND id > ? ORDER BY id)
+CREATE INDEX IF NOT EXISTS idx_product_brand_id ON product(brand, id);
@@ -0,0 +1,6 @@
+-- Normalized storefront category, computed by the backend when a product is written.
+-- Existing rows are classified by ProductService on startup.
+ALTER TABLE product ADD COLUMN IF NOT EXISTS category_key VARCHAR(50);
+
+-- Listing filters on the normalized key instead of the free-text category
+CREATE INDEX IF NOT EXISTS idx_product_category_key_id ON product(category_key, id);
@@ -0,0 +1,12 @@
+-- Ranked product search (GET /api/products/search).
+-- Weighted full-text document: name > brand/category > description.
+-- Typo tolerance is handled before the query reaches the database, by correcting
+-- terms against the catalog's own vocabulary (see SpellingDictionary).
+ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(brand, '') || ' ' || coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING GIN (search_vector);
@@ -0,0 +1,19 @@
+-- Natural key for idempotent CSV re-imports: the supplier SKU, or "brand|name"
+-- (lower-cased, trimmed) when the feed has no sku column.
+ALTER TABLE product ADD COLUMN IF NOT EXISTS sku VARCHAR(400);
+
+-- SHA-256 of the imported fields; unchanged feed rows are skipped on upsert
+ALTER TABLE product ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+-- Backfill keys for existing rows. Where earlier re-imports already created
+-- duplicates only the oldest row gets the key; the rest are left for cleanup.
+UPDATE product p
+SET sku = k.sku
+FROM (
+    SELECT min(id) AS id, lower(trim(coalesce(brand, ''))) || '|' || lower(trim(name)) AS sku
+    FROM product
+    GROUP BY 2
+) k
+WHERE p.id = k.id AND p.sku IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_product_sku ON product(sku);
@@ -0,0 +1,51 @@
+package com.ecomm.ecom.bench;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+/**
+ * Scratch PostgreSQL database for the opt-in benchmarks in this package.
+ * Benchmarks only run when -Dbench.db.url=... is given; they truncate and
+ * re-seed tables, so never point this at a real database.
+ *
+ *   mvn test -Dtest='*Benchmark' -Dbench.db.url=jdbc:postgresql://localhost:5432/ecomm_bench
+ */
+final class BenchmarkDatabase {
+
+    static final String URL_PROPERTY = "bench.db.url";
+
+    private BenchmarkDatabase() {}
+
+    /** Data source for the benchmark database, migrated with the app's Flyway scripts. */
+    static DataSource migrated() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty(URL_PROPERTY),
+                System.getProperty("bench.db.username", "yana"),
+                System.getProperty("bench.db.password", "1234"));
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:migration")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        return dataSource;
+    }
+
+    /** p50 / p95 / p99 / max of the given latencies (nanoseconds), formatted in ms. */
+    static String percentiles(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format("p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                at(sorted, 0.50), at(sorted, 0.95), at(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double at(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
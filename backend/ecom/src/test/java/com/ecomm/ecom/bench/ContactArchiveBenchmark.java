@@ -0,0 +1,157 @@
+package com.ecomm.ecom.bench;
+
+import com.ecomm.ecom.repo.ContactArchiveRepository;
+import com.ecomm.ecom.repo.ContactInboxRepository;
+import com.ecomm.ecom.service.ContactArchiver;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inbox query latency over 5M inquiries (override with -Dbench.inquiries=N)
+ * spread over two years, before and after ContactArchiver moves the finished
+ * ones out. Measured once right after archival (plain VACUUM: the hot table
+ * keeps its old file size) and once after VACUUM FULL, which is what a hot
+ * table that has been archived from the start looks like.
+ */
+@EnabledIfSystemProperty(named = BenchmarkDatabase.URL_PROPERTY, matches = ".+")
+class ContactArchiveBenchmark {
+
+    private static final int INQUIRIES = Integer.getInteger("bench.inquiries", 5_000_000);
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+    private static final int PAGE = 25;
+
+    private static JdbcTemplate template;
+    private static ContactInboxRepository inbox;
+    private static ContactArchiveRepository archive;
+    private static ContactArchiver archiver;
+
+    private static String hotCode;
+    private static String archivedCode;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        // One connection throughout, so timings are queries rather than connection setup
+        DataSource dataSource = new SingleConnectionDataSource(BenchmarkDatabase.migrated().getConnection(), true);
+        template = new JdbcTemplate(dataSource);
+        inbox = new ContactInboxRepository(new NamedParameterJdbcTemplate(template), dataSource);
+        archive = new ContactArchiveRepository(template);
+        archiver = new ContactArchiver(archive, template,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 90, "CLOSED", 5000, 0);
+
+        template.execute("TRUNCATE contact_message, contact_message_archive, contact_message_product, "
+                + "contact_product_daily RESTART IDENTITY");
+        // Older inquiries are mostly closed and read; the last month is still being worked on
+        template.update("""
+                INSERT INTO contact_message (reference_code, name, email, phone, message, product_ids,
+                                             product_names, created_at, updated_at, is_read, status)
+                SELECT 'SE-' || to_char(t.created_at, 'YYYYMMDD') || '-B' || g, 'Customer ' || g, 'customer' || g || '@example.com', '98765' || (g % 100000),
+                       'Please quote for ' || (g % 40 + 1) || ' units, delivery to site ' || md5(g::text),
+                       (g % 5000 + 1)::text, 'Product ' || (g % 5000 + 1),
+                       t.created_at, t.created_at + ((g % 10) || ' days')::interval,
+                       t.old AND g % 33 <> 0 OR g % 2 = 0,
+                       CASE WHEN t.old AND g % 33 <> 0 THEN 'CLOSED' WHEN g % 3 = 0 THEN 'IN_PROGRESS' ELSE 'PENDING' END
+                FROM generate_series(1, ?) g,
+                     LATERAL (SELECT localtimestamp - (g::float / ? * 730 || ' days')::interval AS created_at,
+                                     g::float / ? * 730 > 30 AS old) t
+                """, INQUIRIES, INQUIRIES, INQUIRIES);
+        template.execute("VACUUM ANALYZE contact_message");
+
+        hotCode = template.queryForObject(
+                "SELECT reference_code FROM contact_message ORDER BY created_at DESC LIMIT 1", String.class);
+        archivedCode = template.queryForObject(
+                "SELECT reference_code FROM contact_message ORDER BY created_at LIMIT 1", String.class);
+    }
+
+    @Test
+    void inboxBeforeAndAfterArchival() {
+        System.out.printf("Inbox over %,d inquiries (%d iterations per query)%n", INQUIRIES, ITERATIONS);
+
+        Map<String, String> before = measure("before archival");
+        long unreadBefore = unread();
+
+        long started = System.currentTimeMillis();
+        long moved = archiver.archive();
+        System.out.printf("  archived %,d inquiries in %,d ms%n", moved, System.currentTimeMillis() - started);
+        template.execute("VACUUM ANALYZE contact_message");
+        Map<String, String> afterVacuum = measure("after archival + VACUUM");
+
+        template.execute("VACUUM FULL ANALYZE contact_message");
+        template.execute("VACUUM contact_message"); // VACUUM FULL leaves the visibility map unset
+        Map<String, String> afterFull = measure("after VACUUM FULL");
+
+        assertTrue(moved > INQUIRIES / 2, "expected most inquiries to be archived");
+        assertEquals(unreadBefore, unread(), "only read inquiries may be archived");
+        assertTrue(archive.findByReferenceCode(archivedCode).isPresent(), "oldest inquiry not archived");
+        assertEquals(before.keySet(), afterVacuum.keySet());
+        assertEquals(before.keySet(), afterFull.keySet());
+    }
+
+    private static Map<String, String> measure(String label) {
+        Map<String, Object> sizes = template.queryForMap("""
+                SELECT (SELECT count(*) FROM contact_message) AS hot_rows,
+                       pg_size_pretty(pg_table_size('contact_message')) AS hot_table,
+                       pg_size_pretty(pg_indexes_size('contact_message')) AS hot_indexes,
+                       (SELECT count(*) FROM contact_message_archive) AS archived_rows
+                """);
+        System.out.printf("  %s: %,d hot rows (table %s, indexes %s), %,d archived%n", label,
+                (Long) sizes.get("hot_rows"), sizes.get("hot_table"), sizes.get("hot_indexes"),
+                (Long) sizes.get("archived_rows"));
+
+        LocalDateTime now = LocalDateTime.now();
+        // Cursor about 2,000 rows into the unfiltered inbox
+        LocalDateTime deepCreatedAt = now.minusMinutes((long) (2_000.0 / INQUIRIES * 730 * 24 * 60));
+
+        Map<String, Supplier<Object>> queries = new LinkedHashMap<>();
+        queries.put("first page", () -> inbox.findPage(null, null, null, null, null, null, PAGE + 1));
+        queries.put("status=PENDING", () -> inbox.findPage("PENDING", null, null, null, null, null, PAGE + 1));
+        queries.put("unread", () -> inbox.findPage(null, false, null, null, null, null, PAGE + 1));
+        queries.put("deep cursor", () -> inbox.findPage(null, null, null, null, deepCreatedAt, Long.MAX_VALUE, PAGE + 1));
+        queries.put("last 7 days, PENDING", () -> inbox.findPage("PENDING", null, now.minusDays(7), null,
+                null, null, PAGE + 1));
+        queries.put("unread count", ContactArchiveBenchmark::unread);
+        queries.put("track (hot)", () -> template.queryForList(
+                "SELECT id FROM contact_message WHERE reference_code = ?", Long.class, hotCode));
+        queries.put("track (archived)", () -> template.queryForList(
+                "SELECT id FROM contact_message WHERE reference_code = ?", Long.class, archivedCode).isEmpty()
+                ? archive.findByReferenceCode(archivedCode) : null);
+
+        Map<String, String> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Object>> query : queries.entrySet()) {
+            for (int i = 0; i < WARMUP; i++) {
+                query.getValue().get();
+            }
+            long[] nanos = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                query.getValue().get();
+                nanos[i] = System.nanoTime() - start;
+            }
+            String result = BenchmarkDatabase.percentiles(nanos);
+            results.put(query.getKey(), result);
+            System.out.printf("    %-22s %s%n", query.getKey(), result);
+        }
+        return results;
+    }
+
+    private static long unread() {
+        Long count = template.queryForObject("SELECT count(*) FROM contact_message WHERE is_read = FALSE", Long.class);
+        return count == null ? 0 : count;
+    }
+}
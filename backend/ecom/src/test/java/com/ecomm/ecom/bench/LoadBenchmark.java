@@ -0,0 +1,493 @@
+package com.ecomm.ecom.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load run: seeds the benchmark database, starts the app on a
+ * random port and replays a mix of storefront, tracking, inquiry and admin
+ * inbox requests over HTTP. Writes requests, throughput and p50/p99/p999
+ * latency per route to target/load-report.json so runs can be diffed between
+ * releases.
+ *
+ *   mvn test -Dtest=LoadBenchmark -Dbench.db.url=jdbc:postgresql://localhost:5432/ecomm_bench \
+ *       -Dload.products=100000 -Dload.inquiries=5000000 -Dload.threads=32 -Dload.seconds=120
+ *
+ * Seeding is deterministic and skipped when the database already holds the
+ * requested volumes (inquiries posted by earlier runs are deleted first), so
+ * repeated runs start from the same data. By default each thread sends its
+ * next request as soon as the last one returns; with -Dload.rate=N (requests
+ * per second, all threads together) requests follow a fixed schedule and
+ * latency is measured from the scheduled time, so a stalled server shows up
+ * in the percentiles instead of just slowing the load down.
+ *
+ * -Dload.mix=TRACK:80,INQUIRY:20 replaces the default mix, and
+ * -Dload.virtual-threads=true serves requests on virtual threads (Java 21+).
+ * Comparing the two threading modes at high concurrency, with the pinning
+ * trace on:
+ *
+ *   mvn test -Dtest=LoadBenchmark -Dbench.db.url=... -Dload.threads=400 -Dload.mix=TRACK:80,INQUIRY:20 \
+ *       -Dload.virtual-threads=false -Dload.label=platform -Dload.report=target/load-platform.json
+ *   mvn test ... -Dload.virtual-threads=true -Dload.label=virtual -Dload.report=target/load-virtual.json \
+ *       -DargLine=-Djdk.tracePinnedThreads=short
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.admin.api-key=" + LoadBenchmark.ADMIN_KEY,
+        "app.contact.archive.cron=-"
+})
+@EnabledIfSystemProperty(named = BenchmarkDatabase.URL_PROPERTY, matches = ".+")
+class LoadBenchmark {
+
+    static final String ADMIN_KEY = "load-benchmark";
+
+    private static final int PRODUCTS = Integer.getInteger("load.products", 100_000);
+    private static final int INQUIRIES = Integer.getInteger("load.inquiries", 5_000_000);
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 15);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 60);
+    private static final int RATE = Integer.getInteger("load.rate", 0); // 0 = closed loop
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("load.virtual-threads");
+    private static final String LABEL = System.getProperty("load.label", "");
+    private static final Path REPORT = Path.of(System.getProperty("load.report", "target/load-report.json"));
+
+    // Inquiries posted during a run; removed before the next one
+    private static final String POST_EMAIL = "load-benchmark@example.com";
+    private static final int TRACKING_SAMPLE = 20_000;
+
+    private static final String[][] CATALOG = {
+            {"lighting", "Lighting", "LED Panel Light", "Slim recessed LED panel with aluminium frame"},
+            {"fans", "Fans", "Ceiling Fan", "High speed energy saving ceiling fan"},
+            {"switches", "Switches", "Modular Switch", "Modular switch plate with silver contacts"},
+            {"cables", "Cables", "Copper Wire Cable", "Multi strand copper electrical wire"},
+            {"accessories", "Accessories", "MCB Distribution Box", "Distribution box for MCB panels"}
+    };
+    private static final String[] SEARCH_TERMS = {"led", "ceiling fan", "switch", "copper wire", "mcb",
+            "panel light", "distribution", "fann", "swich", "cable"};
+
+    /**
+     * The replayed mix. Weights are percentages: browsing dominates, public
+     * tracking is the next biggest, admins read the inbox now and then. Two
+     * in three full catalog requests revalidate a cached copy (If-None-Match).
+     */
+    enum Route {
+        CATALOG("GET /api/products", 15),
+        FACETS("GET /api/products/facets", 5),
+        PAGE("GET /api/products/page", 15),
+        PRODUCT("GET /api/products/{id}", 10),
+        SEARCH("GET /api/products/search", 10),
+        TRACK("GET /contact/track/{referenceCode}", 25),
+        INQUIRY("POST /contact", 10),
+        INBOX("GET /contact/admin/inbox", 10);
+
+        private final String label;
+        private final int weight;
+
+        Route(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final Map<Route, Integer> MIX = mix(System.getProperty("load.mix", ""));
+    private static final Route[] WEIGHTED = weighted();
+
+    private static String[] trackingCodes;
+
+    // Last catalog ETag seen; returning visitors revalidate with it
+    private volatile String catalogETag;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private Environment environment;
+
+    private HttpClient client;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty(BenchmarkDatabase.URL_PROPERTY));
+        registry.add("spring.datasource.username", () -> System.getProperty("bench.db.username", "yana"));
+        registry.add("spring.datasource.password", () -> System.getProperty("bench.db.password", "1234"));
+        registry.add("spring.threads.virtual.enabled", () -> VIRTUAL_THREADS);
+    }
+
+    // Runs before the application context starts, so no cache sees the old data
+    @BeforeAll
+    static void seed() {
+        JdbcTemplate template = new JdbcTemplate(BenchmarkDatabase.migrated());
+        template.update("DELETE FROM contact_message WHERE email = ?", POST_EMAIL);
+
+        long products = template.queryForObject("SELECT count(*) FROM product", Long.class);
+        long inquiries = template.queryForObject("SELECT count(*) FROM contact_message", Long.class);
+        if (products != PRODUCTS || inquiries != INQUIRIES) {
+            long started = System.currentTimeMillis();
+            template.execute("TRUNCATE product, contact_message, contact_message_archive, "
+                    + "contact_message_product, contact_product_daily RESTART IDENTITY CASCADE");
+            seedProducts(template);
+            seedInquiries(template);
+            template.execute("VACUUM ANALYZE product");
+            template.execute("VACUUM ANALYZE contact_message");
+            System.out.printf("Seeded %,d products and %,d inquiries in %,d ms%n",
+                    PRODUCTS, INQUIRIES, System.currentTimeMillis() - started);
+        }
+
+        // Spread evenly over the table, so over the whole year of inquiries
+        trackingCodes = template.queryForList(
+                "SELECT reference_code FROM contact_message WHERE id % ? = 0 LIMIT ?", String.class,
+                Math.max(1, INQUIRIES / TRACKING_SAMPLE), TRACKING_SAMPLE).toArray(new String[0]);
+    }
+
+    private static void seedProducts(JdbcTemplate template) {
+        StringBuilder keys = new StringBuilder();
+        for (String[] entry : CATALOG) {
+            keys.append(keys.length() == 0 ? "" : ",").append("('").append(String.join("','", entry)).append("')");
+        }
+        template.update("""
+                INSERT INTO product (sku, name, description, image_url, category, brand, category_key)
+                SELECT 'load|' || g, c.name || ' ' || (g % 97 + 3) || 'W ' || g,
+                       c.description || ', model ' || g || ', ' || (g % 5 + 1) || ' year warranty',
+                       'https://images.example.com/products/' || g || '.jpg',
+                       c.category, 'Brand ' || (g % 50), c.key
+                FROM generate_series(1, ?) g
+                JOIN (VALUES {catalog}) AS c(key, category, name, description)
+                  ON c.key = (ARRAY['lighting', 'fans', 'switches', 'cables', 'accessories'])[g % 5 + 1]
+                """.replace("{catalog}", keys), PRODUCTS);
+    }
+
+    // A year of inquiries; older ones are mostly closed and read
+    private static void seedInquiries(JdbcTemplate template) {
+        template.update("""
+                INSERT INTO contact_message (reference_code, name, email, phone, message, product_ids,
+                                             product_names, created_at, updated_at, is_read, status)
+                SELECT 'SE-' || to_char(t.created_at, 'YYYYMMDD') || '-L' || g, 'Customer ' || g,
+                       'customer' || g || '@example.com', '98765' || (g % 100000),
+                       'Please quote for ' || (g % 40 + 1) || ' units, delivery to site ' || md5(g::text),
+                       (g % ? + 1)::text, 'Product ' || (g % ? + 1),
+                       t.created_at, t.created_at + ((g % 10) || ' days')::interval,
+                       t.old AND g % 33 <> 0 OR g % 2 = 0,
+                       CASE WHEN t.old AND g % 33 <> 0 THEN 'CLOSED' WHEN g % 3 = 0 THEN 'IN_PROGRESS' ELSE 'PENDING' END
+                FROM generate_series(1, ?) g,
+                     LATERAL (SELECT localtimestamp - (g::float / ? * 365 || ' days')::interval AS created_at,
+                                     g::float / ? * 365 > 30 AS old) t
+                """, PRODUCTS, PRODUCTS, INQUIRIES, INQUIRIES, INQUIRIES);
+    }
+
+    @Test
+    void replayMix() throws Exception {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        System.out.printf("Load: %d threads, %s, %ds warmup + %ds against %,d products / %,d inquiries, "
+                        + "%s request threads%n", THREADS, RATE > 0 ? RATE + " req/s" : "closed loop",
+                WARMUP_SECONDS, SECONDS, PRODUCTS, INQUIRIES, virtual ? "virtual" : "platform");
+        run(WARMUP_SECONDS);
+        long started = System.nanoTime();
+        List<Worker> workers = run(SECONDS);
+        // Longer than SECONDS when an overloaded server falls behind the schedule
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, Object> report = report(workers, elapsedSeconds);
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+        System.out.println(Files.readString(REPORT));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        long requests = (Long) total.get("requests");
+        long errors = (Long) total.get("errors");
+        assertTrue(requests > 0, "no requests completed");
+        assertTrue(errors <= requests / 100, "more than 1% of requests failed");
+    }
+
+    private List<Worker> run(int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long intervalNanos = RATE > 0 ? TimeUnit.SECONDS.toNanos(THREADS) / RATE : 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Worker> workers = new ArrayList<>();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Worker worker = new Worker(i, deadline, intervalNanos);
+            workers.add(worker);
+            running.add(executor.submit(worker));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        executor.shutdown();
+        return workers;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final int id;
+        private final long deadline;
+        private final long intervalNanos;
+        private final Map<Route, Samples> latencies = new EnumMap<>(Route.class);
+        private final Map<Route, Map<Integer, Long>> statuses = new EnumMap<>(Route.class);
+        private final Map<Route, Long> errors = new EnumMap<>(Route.class);
+        private long sent;
+
+        private Worker(int id, long deadline, long intervalNanos) {
+            this.id = id;
+            this.deadline = deadline;
+            this.intervalNanos = intervalNanos;
+            for (Route route : Route.values()) {
+                latencies.put(route, new Samples());
+                statuses.put(route, new TreeMap<>());
+                errors.put(route, 0L);
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // Stagger the threads' schedules across one interval
+            long scheduled = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+
+            while (true) {
+                long start;
+                if (intervalNanos > 0) {
+                    while (System.nanoTime() < scheduled) {
+                        LockSupport.parkNanos(scheduled - System.nanoTime());
+                    }
+                    start = scheduled;
+                    scheduled += intervalNanos;
+                } else {
+                    start = System.nanoTime();
+                }
+                if (start >= deadline) {
+                    return;
+                }
+
+                Route route = WEIGHTED[random.nextInt(WEIGHTED.length)];
+                try {
+                    HttpResponse<Void> response = client.send(request(route, random),
+                            HttpResponse.BodyHandlers.discarding());
+                    long elapsed = System.nanoTime() - start;
+                    if (route == Route.CATALOG && response.statusCode() == 200) {
+                        response.headers().firstValue("ETag").ifPresent(etag -> catalogETag = etag);
+                    }
+                    statuses.get(route).merge(response.statusCode(), 1L, Long::sum);
+                    if (response.statusCode() >= 500) {
+                        errors.merge(route, 1L, Long::sum);
+                    } else {
+                        latencies.get(route).add(elapsed);
+                    }
+                } catch (IOException e) {
+                    errors.merge(route, 1L, Long::sum);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private HttpRequest request(Route route, ThreadLocalRandom random) {
+            HttpRequest.Builder request = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+            switch (route) {
+                case CATALOG -> {
+                    request.uri(uri("/api/products"));
+                    String etag = catalogETag;
+                    if (etag != null && random.nextInt(3) != 0) {
+                        request.header("If-None-Match", etag);
+                    }
+                }
+                case FACETS -> request.uri(uri("/api/products/facets"));
+                case PAGE -> request.uri(uri("/api/products/page?limit=24&category="
+                        + CATALOG[random.nextInt(CATALOG.length)][0]
+                        + (random.nextInt(4) == 0 ? "&cursor=" + random.nextInt(PRODUCTS) : "")));
+                case PRODUCT -> request.uri(uri("/api/products/" + (random.nextInt(PRODUCTS) + 1)));
+                case SEARCH -> request.uri(uri("/api/products/search?limit=24&q="
+                        + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)].replace(" ", "+")));
+                case TRACK -> request.uri(uri("/contact/track/" + trackingCode(random)));
+                case INQUIRY -> request.uri(uri("/contact"))
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .POST(HttpRequest.BodyPublishers.ofString(inquiry(random)));
+                case INBOX -> request.uri(uri("/contact/admin/inbox"
+                        + (random.nextBoolean() ? "" : "?read=false")))
+                        .header("X-API-KEY", ADMIN_KEY);
+            }
+            return request.build();
+        }
+
+        // One lookup in ten is for a code that does not exist (typos, guesses)
+        private String trackingCode(ThreadLocalRandom random) {
+            if (random.nextInt(10) == 0) {
+                return "SE-" + LocalDate.now().minusDays(random.nextInt(365)).format(DateTimeFormatter.BASIC_ISO_DATE)
+                        + "-Z" + random.nextInt(1_000_000);
+            }
+            return trackingCodes[random.nextInt(trackingCodes.length)];
+        }
+
+        private String inquiry(ThreadLocalRandom random) {
+            return "{\"name\":\"Load Benchmark\",\"email\":\"" + POST_EMAIL + "\",\"phone\":\"9876543210\","
+                    + "\"message\":\"Please quote for " + (random.nextInt(100) + 1) + " units (worker " + id
+                    + ", request " + (++sent) + ")\",\"productIds\":[" + (random.nextInt(PRODUCTS) + 1) + ","
+                    + (random.nextInt(PRODUCTS) + 1) + "]}";
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+    }
+
+    private Map<String, Object> report(List<Worker> workers, double elapsedSeconds) {
+        Map<String, Object> routes = new LinkedHashMap<>();
+        Samples all = new Samples();
+        long allErrors = 0;
+        for (Route route : MIX.keySet()) {
+            Samples samples = new Samples();
+            Map<Integer, Long> statuses = new TreeMap<>();
+            long errors = 0;
+            for (Worker worker : workers) {
+                samples.addAll(worker.latencies.get(route));
+                worker.statuses.get(route).forEach((status, count) -> statuses.merge(status, count, Long::sum));
+                errors += worker.errors.get(route);
+            }
+            all.addAll(samples);
+            allErrors += errors;
+            Map<String, Object> stats = stats(samples, errors, elapsedSeconds);
+            stats.put("statuses", statuses);
+            routes.put(route.label, stats);
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("products", PRODUCTS);
+        config.put("inquiries", INQUIRIES);
+        config.put("threads", THREADS);
+        config.put("rate", RATE > 0 ? RATE : null);
+        config.put("warmupSeconds", WARMUP_SECONDS);
+        config.put("seconds", SECONDS);
+        config.put("virtualThreads", Threading.VIRTUAL.isActive(environment));
+        config.put("poolSize", environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class));
+        config.put("mix", MIX.entrySet().stream()
+                .collect(LinkedHashMap::new, (map, e) -> map.put(e.getKey().label, e.getValue()), Map::putAll));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", LABEL);
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", config);
+        report.put("elapsedSeconds", Math.round(elapsedSeconds * 10) / 10.0);
+        report.put("total", stats(all, allErrors, elapsedSeconds));
+        report.put("routes", routes);
+        return report;
+    }
+
+    private static Map<String, Object> stats(Samples samples, long errors, double elapsedSeconds) {
+        long[] sorted = samples.sorted();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", (long) sorted.length + errors);
+        stats.put("errors", errors);
+        stats.put("throughput", Math.round((sorted.length + errors) * 10.0 / elapsedSeconds) / 10.0);
+        stats.put("p50Ms", percentile(sorted, 0.50));
+        stats.put("p99Ms", percentile(sorted, 0.99));
+        stats.put("p999Ms", percentile(sorted, 0.999));
+        stats.put("maxMs", sorted.length == 0 ? null : sorted[sorted.length - 1] / 1e6);
+        return stats;
+    }
+
+    private static Double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return Math.round(sorted[Math.max(0, index)] / 1e3) / 1e3;
+    }
+
+    // "TRACK:80,INQUIRY:20"; empty for the default weights
+    private static Map<Route, Integer> mix(String spec) {
+        Map<Route, Integer> mix = new EnumMap<>(Route.class);
+        if (spec.isBlank()) {
+            for (Route route : Route.values()) {
+                mix.put(route, route.weight);
+            }
+            return mix;
+        }
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split(":");
+            mix.put(Route.valueOf(entry[0].trim().toUpperCase()), Integer.parseInt(entry[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Route[] weighted() {
+        List<Route> routes = new ArrayList<>();
+        MIX.forEach((route, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                routes.add(route);
+            }
+        });
+        return routes.toArray(new Route[0]);
+    }
+
+    // Growable list of latencies in nanoseconds
+    private static final class Samples {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        private long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.ecomm.ecom.bench;
+
+import com.ecomm.ecom.model.Product;
+import com.ecomm.ecom.repo.ProductRepository;
+import com.ecomm.ecom.service.ProductCsvImporter;
+import com.ecomm.ecom.service.ProductImportJob;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the streaming JDBC-batch CSV import (chunked commits) against
+ * the original path (parse everything into a list, then repo.saveAll in one
+ * transaction) on a synthetic 200k-row feed (override with -Dbench.import.rows=N),
+ * and the cost of re-importing that feed in upsert mode when nothing or 5% of
+ * the rows changed.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = BenchmarkDatabase.URL_PROPERTY, matches = ".+")
+class ProductImportBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.import.rows", 200_000);
+
+    private static Path csv;
+    private static Path changedCsv;
+
+    @Autowired
+    private ProductRepository repo;
+
+    @Autowired
+    private ProductCsvImporter importer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty(BenchmarkDatabase.URL_PROPERTY));
+        registry.add("spring.datasource.username", () -> System.getProperty("bench.db.username", "yana"));
+        registry.add("spring.datasource.password", () -> System.getProperty("bench.db.password", "1234"));
+    }
+
+    @BeforeAll
+    static void writeFeed() throws IOException {
+        csv = writeFeed(0);
+        changedCsv = writeFeed(20);
+    }
+
+    // Every changeEvery-th row gets a new description (0 = none)
+    private static Path writeFeed(int changeEvery) throws IOException {
+        Path feed = Files.createTempFile("product-feed", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(feed, StandardCharsets.UTF_8)) {
+            out.write("name,description,imageUrl,category,brand\n");
+            for (int i = 1; i <= ROWS; i++) {
+                String rating = changeEvery > 0 && i % changeEvery == 0 ? "4 star" : "5 star";
+                out.write("Ceiling Fan " + i + ",\"1200mm sweep, " + rating + " rated, model " + i + "\","
+                        + "https://cdn.example.com/p/" + i + ".jpg,Fans,Brand " + (i % 40) + "\n");
+            }
+        }
+        return feed;
+    }
+
+    @AfterAll
+    static void deleteFeed() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(changedCsv);
+    }
+
+    @Test
+    void compareImportPaths() throws IOException {
+        System.out.printf("CSV import of %,d rows%n", ROWS);
+
+        truncate();
+        long legacy = time(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Reader reader = open(); CSVParser parser = CSVFormat.DEFAULT.builder()
+                    .setHeader().setSkipHeaderRecord(true).build().parse(reader)) {
+                List<Product> products = new ArrayList<>();
+                for (CSVRecord record : parser) {
+                    products.add(importer.toProduct(record));
+                }
+                repo.saveAll(products);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        assertEquals(ROWS, count());
+        report("list + saveAll (previous)", legacy);
+
+        truncate();
+        long streaming = time(() -> {
+            try (Reader reader = open()) {
+                importer.importCsv(reader, new ProductImportJob("benchmark", "feed.csv", ProductImportJob.Mode.INSERT));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertEquals(ROWS, count());
+        report("streaming JDBC batches", streaming);
+
+        System.out.printf("  speedup: %.1fx%n", (double) legacy / streaming);
+    }
+
+    @Test
+    void compareUpsertReimports() {
+        System.out.printf("CSV upsert re-import of %,d rows%n", ROWS);
+
+        truncate();
+        ProductImportJob initial = upsertJob();
+        report("upsert into empty table", time(() -> importFeed(csv, initial)));
+        assertEquals(ROWS, initial.getRowsInserted());
+
+        ProductImportJob same = upsertJob();
+        report("re-import, 0% changed", time(() -> importFeed(csv, same)));
+        assertEquals(ROWS, same.getRowsUnchanged());
+
+        ProductImportJob changed = upsertJob();
+        report("re-import, 5% changed", time(() -> importFeed(changedCsv, changed)));
+        assertEquals(ROWS / 20, changed.getRowsUpdated());
+        assertEquals(ROWS - ROWS / 20, changed.getRowsUnchanged());
+        assertEquals(0, changed.getRowsRejected());
+        assertEquals(ROWS, count());
+    }
+
+    private static ProductImportJob upsertJob() {
+        return new ProductImportJob("benchmark", "feed.csv", ProductImportJob.Mode.UPSERT);
+    }
+
+    private void importFeed(Path feed, ProductImportJob job) {
+        try (Reader reader = Files.newBufferedReader(feed, StandardCharsets.UTF_8)) {
+            importer.importCsv(reader, job);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void truncate() {
+        jdbcTemplate.execute("TRUNCATE product RESTART IDENTITY");
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM product", Integer.class);
+    }
+
+    private static Reader open() throws IOException {
+        return new BufferedReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8));
+    }
+
+    private static long time(Runnable run) {
+        System.gc();
+        long start = System.nanoTime();
+        run.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String path, long nanos) {
+        System.out.printf("  %-26s %8.0f ms  %,10.0f rows/s%n", path, nanos / 1e6, ROWS / (nanos / 1e9));
+    }
+}
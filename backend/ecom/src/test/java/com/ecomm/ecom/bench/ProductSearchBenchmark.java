@@ -0,0 +1,105 @@
+package com.ecomm.ecom.bench;
+
+import com.ecomm.ecom.repo.ProductRepository;
+import com.ecomm.ecom.service.SpellingDictionary;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of product search over a synthetic 100k product catalog (override
+ * with -Dbench.products=N): typo correction against the catalog vocabulary plus
+ * the full-text query. Fails if the planner stops using the GIN index from V8.
+ */
+@EnabledIfSystemProperty(named = BenchmarkDatabase.URL_PROPERTY, matches = ".+")
+class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 100_000);
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    // Mix of exact terms, multi-word phrases and typos
+    private static final List<String> QUERIES = List.of(
+            "ceiling fan", "havels", "chandelier", "copper wire", "moduler switch", "philips led bulb");
+
+    private static NamedParameterJdbcTemplate jdbc;
+    private static SpellingDictionary spelling;
+
+    @BeforeAll
+    static void seed() {
+        DataSource dataSource = BenchmarkDatabase.migrated();
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+
+        template.execute("TRUNCATE product RESTART IDENTITY");
+        template.update("""
+                INSERT INTO product (name, description, category, brand)
+                SELECT (ARRAY['LED','Ceiling','Exhaust','Modular','Copper','Smart','Industrial','Decorative'])[1 + g % 8]
+                           || ' ' || (ARRAY['Fan','Light','Switch','Cable','Panel','Bulb','Socket','Wire','Chandelier',
+                                            'Regulator'])[1 + (g / 8) % 10] || ' ' || g,
+                       'Synthetic catalog item ' || g || ' rated ' || (g % 90 + 10) || 'W, ' || md5(g::text),
+                       (ARRAY['Fans','Lighting','Switches','Cables','Accessories'])[1 + g % 5],
+                       (ARRAY['Havells','Crompton','Philips','Anchor','Polycab','Orient','Legrand'])[1 + g % 7]
+                FROM generate_series(1, ?) g
+                """, PRODUCTS);
+        template.execute("ANALYZE product");
+
+        // Same vocabulary the catalog snapshot builds in the app
+        List<String> vocabulary = new ArrayList<>();
+        template.query("SELECT name, brand, category FROM product", rs -> {
+            vocabulary.add(rs.getString(1));
+            vocabulary.add(rs.getString(2));
+            vocabulary.add(rs.getString(3));
+        });
+        spelling = SpellingDictionary.build(vocabulary);
+
+        jdbc = new NamedParameterJdbcTemplate(template);
+    }
+
+    @Test
+    void searchLatency() {
+        System.out.printf("Product search over %,d products (%d iterations per query)%n", PRODUCTS, ITERATIONS);
+
+        for (String q : QUERIES) {
+            List<Integer> ids = List.of();
+            for (int i = 0; i < WARMUP; i++) {
+                ids = search(q);
+            }
+            long[] nanos = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                search(q);
+                nanos[i] = System.nanoTime() - start;
+            }
+
+            System.out.printf("  %-18s -> %-24s hits=%-3d %s%n",
+                    q, spelling.toTsQuery(q), ids.size(), BenchmarkDatabase.percentiles(nanos));
+            assertFalse(ids.isEmpty(), "no results for " + q);
+        }
+    }
+
+    @Test
+    void searchUsesGinIndex() {
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN " + ProductRepository.SEARCH_IDS_SQL,
+                params(spelling.toTsQuery("ceiling fan")), String.class));
+
+        assertTrue(plan.contains("idx_product_search_vector"), plan);
+    }
+
+    private static List<Integer> search(String q) {
+        return jdbc.queryForList(ProductRepository.SEARCH_IDS_SQL, params(spelling.toTsQuery(q)), Integer.class);
+    }
+
+    private static MapSqlParameterSource params(String tsQuery) {
+        return new MapSqlParameterSource().addValue("q", tsQuery).addValue("limit", 21).addValue("offset", 0);
+    }
+}
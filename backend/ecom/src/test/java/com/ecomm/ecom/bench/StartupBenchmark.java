@@ -0,0 +1,186 @@
+package com.ecomm.ecom.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cold start: launches the packaged application in a fresh JVM, as a scaled
+ * to zero instance would, and measures the time from launch to the first
+ * successful GET /health and then to the first GET /api/products. Repeated
+ * startup.runs times; medians go to target/startup-report.json.
+ *
+ *   mvn -DskipTests package
+ *   mvn test -Dtest=StartupBenchmark -Dbench.db.url=jdbc:postgresql://localhost:5432/ecomm_bench \
+ *       -Dstartup.label=baseline
+ *
+ * Fast-startup variants (see the aot and cds profiles in pom.xml):
+ *
+ *   -Dstartup.profiles=fast-start
+ *   -Dstartup.jar=target/cds/ecom-0.0.1-SNAPSHOT-cds.jar -Dstartup.jvm-args="-XX:SharedArchiveFile=application.jsa"
+ *   -Dstartup.jvm-args="-Dspring.aot.enabled=true" (jar built with -Paot)
+ *
+ * The JVM runs in the jar's directory, as the CDS training run does (the
+ * archive only applies to the same class path), so relative paths in
+ * startup.jvm-args resolve from there.
+ *
+ * The benchmark database must already be migrated and seeded (LoadBenchmark
+ * does both); it is only read here.
+ */
+@EnabledIfSystemProperty(named = BenchmarkDatabase.URL_PROPERTY, matches = ".+")
+class StartupBenchmark {
+
+    private static final Path JAR = Path.of(System.getProperty("startup.jar", "target/ecom-0.0.1-SNAPSHOT.jar"));
+    private static final String JVM_ARGS = System.getProperty("startup.jvm-args", "");
+    private static final String PROFILES = System.getProperty("startup.profiles", "");
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final String LABEL = System.getProperty("startup.label", "");
+    private static final Path REPORT = Path.of(System.getProperty("startup.report", "target/startup-report.json"));
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([\\d.]+) seconds");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    @Test
+    void timeToFirstResponse() throws Exception {
+        assertTrue(Files.isRegularFile(JAR), JAR + " not found; run mvn package first");
+        System.out.printf("Startup: %s %s, profiles [%s], %d runs%n", JVM_ARGS, JAR, PROFILES, RUNS);
+
+        List<Map<String, Object>> runs = new ArrayList<>();
+        for (int i = 1; i <= RUNS; i++) {
+            Map<String, Object> run = launch(i);
+            System.out.println("  run " + i + ": " + run);
+            runs.add(run);
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("jar", JAR.toString());
+        config.put("jvmArgs", JVM_ARGS);
+        config.put("profiles", PROFILES);
+        config.put("java", Runtime.version().toString());
+        config.put("runs", RUNS);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", LABEL);
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", config);
+        report.put("healthMs", summary(runs, "healthMs"));
+        report.put("productsMs", summary(runs, "productsMs"));
+        report.put("startedSeconds", summary(runs, "startedSeconds"));
+        report.put("runs", runs);
+
+        Files.createDirectories(REPORT.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT.toFile(), report);
+        System.out.println(Files.readString(REPORT));
+    }
+
+    private Map<String, Object> launch(int run) throws Exception {
+        int port = freePort();
+        Path log = REPORT.toAbsolutePath().resolveSibling("startup-run-" + run + ".log");
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!JVM_ARGS.isBlank()) {
+            command.addAll(Arrays.asList(JVM_ARGS.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-jar", JAR.getFileName().toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + System.getProperty(BenchmarkDatabase.URL_PROPERTY),
+                "--spring.datasource.username=" + System.getProperty("bench.db.username", "yana"),
+                "--spring.datasource.password=" + System.getProperty("bench.db.password", "1234"),
+                "--app.contact.archive.cron=-"));
+        if (!PROFILES.isBlank()) {
+            command.add("--spring.profiles.active=" + PROFILES);
+        }
+
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(JAR.toAbsolutePath().getParent().toFile())
+                .redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long health = firstResponse(process, launched, "http://localhost:" + port + "/health");
+            long products = firstResponse(process, launched, "http://localhost:" + port + "/api/products");
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("healthMs", TimeUnit.NANOSECONDS.toMillis(health));
+            result.put("productsMs", TimeUnit.NANOSECONDS.toMillis(products));
+            result.put("startedSeconds", startedSeconds(log));
+            return result;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Polls until the first 200, returning nanoseconds since launch
+    private long firstResponse(Process process, long launched, String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).build();
+        while (System.nanoTime() - launched < TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return System.nanoTime() - launched;
+                }
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No response from " + url + " within " + TIMEOUT);
+    }
+
+    private static Double startedSeconds(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.valueOf(matcher.group(1)) : null;
+    }
+
+    private static Map<String, Object> summary(List<Map<String, Object>> runs, String key) {
+        double[] values = runs.stream().map(run -> run.get(key)).filter(value -> value != null)
+                .mapToDouble(value -> ((Number) value).doubleValue()).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (values.length > 0) {
+            summary.put("median", values[values.length / 2]);
+            summary.put("min", values[0]);
+            summary.put("max", values[values.length - 1]);
+        }
+        return summary;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecomm.ecom.bench.jmh;
+
+import com.ecomm.ecom.config.ApiKeyAuthFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of ApiKeyAuthFilter for a public request (no key), an
+ * admin request (valid key) and a wrong key. The security context is cleared
+ * after each request, as SecurityContextHolderFilter does in the app.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiKeyAuthFilterBenchmark {
+
+    private static final String ADMIN_KEY = "3f6c1b7e-admin-key-9d2a";
+
+    @Param({"none", "valid", "wrong"})
+    public String key;
+
+    private ApiKeyAuthFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        filter = new ApiKeyAuthFilter();
+        ReflectionTestUtils.setField(filter, "adminApiKey", ADMIN_KEY);
+
+        request = new MockHttpServletRequest("GET", "/contact/admin/inbox");
+        if (key.equals("valid")) {
+            request.addHeader("X-API-KEY", ADMIN_KEY);
+        } else if (key.equals("wrong")) {
+            request.addHeader("X-API-KEY", "3f6c1b7e-admin-key-0000");
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void doFilter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
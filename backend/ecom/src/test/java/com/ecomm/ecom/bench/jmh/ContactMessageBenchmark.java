@@ -0,0 +1,61 @@
+package com.ecomm.ecom.bench.jmh;
+
+import com.ecomm.ecom.model.ContactMessage;
+import com.ecomm.ecom.service.ReferenceCodeGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a ContactMessage for POST /contact, including its reference code.
+ * The counter block reservation (one database round trip per 32 codes) is
+ * answered in memory, so this is the generator's locking and encoding cost;
+ * contended runs it from four threads at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactMessageBenchmark {
+
+    private ReferenceCodeGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new ReferenceCodeGenerator(InMemoryJdbc.referenceCounter(), InMemoryJdbc.transactionManager(),
+                32, "neekan");
+    }
+
+    @Benchmark
+    public String referenceCode() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public ContactMessage contactMessage() {
+        return newMessage();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ContactMessage contended() {
+        return newMessage();
+    }
+
+    private ContactMessage newMessage() {
+        return new ContactMessage(generator.next(), "Asha Verma", "asha@example.com", "+91 98765 43210",
+                "Please quote for 40 ceiling fans and 120 LED panels for a new office.", "12,48", "Ceiling Fan, LED Panel");
+    }
+}
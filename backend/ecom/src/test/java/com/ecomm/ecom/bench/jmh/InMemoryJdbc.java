@@ -0,0 +1,89 @@
+package com.ecomm.ecom.bench.jmh;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Database stand-ins for the JMH benchmarks, which measure the Java side of a
+ * code path only. Round trips are covered by the database benchmarks in the
+ * parent package.
+ */
+final class InMemoryJdbc {
+
+    private InMemoryJdbc() {}
+
+    static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    static TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager());
+    }
+
+    /**
+     * Accepts JDBC batches and multi-row inserts without running them; every
+     * row counts as inserted (the importer's INSERT returns the first column
+     * of each of its 8-column rows).
+     */
+    static JdbcTemplate discardingBatches() {
+        return new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                List<T> keys = new ArrayList<>(args.length / 8);
+                for (int i = 0; i < args.length; i += 8) {
+                    keys.add((T) args[i]);
+                }
+                return keys;
+            }
+
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                int[] counts = new int[batchArgs.size()];
+                Arrays.fill(counts, 1);
+                return new int[][]{counts};
+            }
+        };
+    }
+
+    /**
+     * Answers the reference counter's block reservation the way the
+     * database does: each call returns the new end of the day's range.
+     */
+    static JdbcTemplate referenceCounter() {
+        return new JdbcTemplate() {
+            private long nextValue;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                nextValue += ((Number) args[1]).longValue();
+                return (T) Long.valueOf(nextValue);
+            }
+        };
+    }
+}
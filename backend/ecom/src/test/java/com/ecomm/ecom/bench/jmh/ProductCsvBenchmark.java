@@ -0,0 +1,77 @@
+package com.ecomm.ecom.bench.jmh;
+
+import com.ecomm.ecom.service.ProductCategorizer;
+import com.ecomm.ecom.service.ProductCsvImporter;
+import com.ecomm.ecom.service.ProductImportJob;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second through the CSV upload path (POST /api/products/upload)
+ * with the database writes stubbed out: parsing, mapping to Product,
+ * categorizing, validating and hashing each row. parseOnly is the Commons CSV
+ * share of that.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCsvBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private String feed;
+    private ProductCsvImporter importer;
+
+    @Setup
+    public void setUp() {
+        StringBuilder csv = new StringBuilder("name,description,imageUrl,category,brand\n");
+        for (int i = 1; i <= ROWS; i++) {
+            csv.append("Ceiling Fan ").append(i).append(" mm,")
+                    .append("\"High speed, 5 star rated, ").append(i % 7 + 1).append(" blades\",")
+                    .append("https://images.example.com/fans/").append(i).append(".jpg,")
+                    .append(i % 3 == 0 ? "" : "Fans").append(',')
+                    .append("Brand ").append(i % 40).append('\n');
+        }
+        feed = csv.toString();
+        importer = new ProductCsvImporter(InMemoryJdbc.discardingBatches(), InMemoryJdbc.transactionTemplate(),
+                new ProductCategorizer());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long importRows() throws IOException {
+        ProductImportJob job = new ProductImportJob("benchmark", "feed.csv", ProductImportJob.Mode.INSERT);
+        importer.importCsv(new StringReader(feed), job);
+        return job.getRowsImported();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseOnly(Blackhole blackhole) throws IOException {
+        CSVParser parser = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).build()
+                .parse(new StringReader(feed));
+        for (CSVRecord record : parser) {
+            blackhole.consume(record.get("name"));
+        }
+    }
+}
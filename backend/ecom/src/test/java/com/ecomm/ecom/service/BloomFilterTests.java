@@ -0,0 +1,51 @@
+package com.ecomm.ecom.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+    private static final int VALUES = 100_000;
+
+    @Test
+    void everyAddedValueIsFound() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.add(code(i));
+        }
+        for (int i = 0; i < VALUES; i++) {
+            assertTrue(filter.mightContain(code(i)), code(i));
+        }
+    }
+
+    @Test
+    void overfilledFilterStillFindsEveryValue() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(code(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(code(i)), code(i));
+        }
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.add(code(i));
+        }
+        int falsePositives = 0;
+        for (int i = VALUES; i < 2 * VALUES; i++) {
+            if (filter.mightContain(code(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < VALUES * 0.02, falsePositives + " false positives");
+    }
+
+    private static String code(int i) {
+        return "SE-20240101-" + Integer.toString(i, 32).toUpperCase();
+    }
+}
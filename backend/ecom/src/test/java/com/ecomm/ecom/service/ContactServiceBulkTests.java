@@ -0,0 +1,174 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.dto.BulkInquiryRequest;
+import com.ecomm.ecom.dto.BulkUpdateResult;
+import com.ecomm.ecom.repo.ContactArchiveRepository;
+import com.ecomm.ecom.repo.ContactInboxRepository;
+import com.ecomm.ecom.repo.ContactMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Selection rules for the bulk admin updates, before anything reaches the
+ * database, and the status form shared with single updates.
+ */
+class ContactServiceBulkTests {
+
+    private static final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private static final Validator validator = validatorFactory.getValidator();
+
+    private final ContactMessageRepository repository = mock(ContactMessageRepository.class);
+    private final ContactInboxRepository inbox = mock(ContactInboxRepository.class);
+    private final ContactService service = new ContactService(
+            repository, inbox, mock(ContactArchiveRepository.class),
+            mock(ContactIngestionService.class), mock(ReferenceCodeFilter.class),
+            mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), 100, 60);
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void normalizesAndDeduplicatesReferenceCodes() {
+        when(inbox.updateStatus(anyCollection(), isNull(), isNull(), isNull(), eq("CLOSED")))
+                .thenReturn(new BulkUpdateResult(2, 1));
+
+        BulkInquiryRequest request = byCodes(" se-20240101-abcd ", "SE-20240101-ABCD", "", null, "se-20240101-efgh");
+        request.setStatus(" closed ");
+        assertEquals(2, service.bulkUpdateStatus(request).getUpdated());
+
+        verify(inbox).updateStatus(eq(Set.of("SE-20240101-ABCD", "SE-20240101-EFGH")),
+                isNull(), isNull(), isNull(), eq("CLOSED"));
+    }
+
+    @Test
+    void passesFilterConditionsThrough() {
+        BulkInquiryRequest request = new BulkInquiryRequest();
+        request.setWhere(where(" pending ", false, 30));
+        request.setStatus("CLOSED");
+        when(inbox.updateStatus(isNull(), eq("PENDING"), eq(false), any(LocalDateTime.class), eq("CLOSED")))
+                .thenReturn(new BulkUpdateResult(5, 5));
+
+        assertEquals(5, service.bulkUpdateStatus(request).getMarkedRead());
+    }
+
+    @Test
+    void needsExactlyOneSelection() {
+        BulkInquiryRequest neither = new BulkInquiryRequest();
+        neither.setStatus("CLOSED");
+        BulkInquiryRequest emptyCodes = byCodes();
+        emptyCodes.setStatus("CLOSED");
+        BulkInquiryRequest both = byCodes("SE-20240101-ABCD");
+        both.setWhere(where("PENDING", null, null));
+        both.setStatus("CLOSED");
+
+        for (BulkInquiryRequest request : List.of(neither, emptyCodes, both)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> service.bulkUpdateStatus(request));
+            assertEquals("Give either referenceCodes or where", e.getMessage());
+        }
+        verifyNoInteractions(inbox);
+    }
+
+    @Test
+    void rejectsAnEmptyFilter() {
+        BulkInquiryRequest request = new BulkInquiryRequest();
+        request.setWhere(where(null, null, null));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.bulkMarkAsRead(request));
+        assertEquals("where needs at least one condition", e.getMessage());
+    }
+
+    @Test
+    void rejectsBlankCodesAndMissingStatus() {
+        assertEquals("referenceCodes is empty", assertThrows(IllegalArgumentException.class,
+                () -> service.bulkMarkAsRead(byCodes(" ", null))).getMessage());
+        assertEquals("status is required", assertThrows(IllegalArgumentException.class,
+                () -> service.bulkUpdateStatus(byCodes("SE-20240101-ABCD"))).getMessage());
+        verifyNoInteractions(inbox);
+    }
+
+    @Test
+    void markingReadInquiriesReadIsANoOp() {
+        BulkInquiryRequest request = new BulkInquiryRequest();
+        request.setWhere(where(null, true, null));
+        assertEquals(0, service.bulkMarkAsRead(request).getUpdated());
+        verifyNoInteractions(inbox);
+    }
+
+    @Test
+    void singleUpdatesStoreStatusLikeBulkUpdates() {
+        when(repository.updateStatusOfUnread("SE-20240101-ABCD", "CLOSED")).thenReturn(1);
+        service.updateStatus(" se-20240101-abcd ", " closed ");
+        verify(repository).updateStatusOfUnread("SE-20240101-ABCD", "CLOSED");
+    }
+
+    @Test
+    void singleUpdatesValidateStatus() {
+        assertEquals("status is required", assertThrows(IllegalArgumentException.class,
+                () -> service.updateStatus("SE-20240101-ABCD", " ")).getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.updateStatus("SE-20240101-ABCD", "X".repeat(21)));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void requestLimitsAreValidated() {
+        List<String> codes = new ArrayList<>(Collections.nCopies(1001, "SE-20240101-ABCD"));
+        BulkInquiryRequest tooMany = byCodes(codes.toArray(new String[0]));
+        assertTrue(hasViolation(tooMany, "referenceCodes"));
+        assertTrue(validator.validate(byCodes(codes.subList(0, 1000).toArray(new String[0]))).isEmpty());
+
+        BulkInquiryRequest notOlder = new BulkInquiryRequest();
+        notOlder.setWhere(where("PENDING", null, 0));
+        assertTrue(hasViolation(notOlder, "where.olderThanDays"));
+
+        BulkInquiryRequest longStatus = byCodes("SE-20240101-ABCD");
+        longStatus.setStatus("X".repeat(21));
+        assertTrue(hasViolation(longStatus, "status"));
+    }
+
+    private static boolean hasViolation(BulkInquiryRequest request, String path) {
+        return validator.validate(request).stream()
+                .anyMatch(violation -> violation.getPropertyPath().toString().equals(path));
+    }
+
+    private static BulkInquiryRequest byCodes(String... codes) {
+        BulkInquiryRequest request = new BulkInquiryRequest();
+        request.setReferenceCodes(Arrays.asList(codes));
+        return request;
+    }
+
+    private static BulkInquiryRequest.Filter where(String status, Boolean read, Integer olderThanDays) {
+        BulkInquiryRequest.Filter where = new BulkInquiryRequest.Filter();
+        where.setStatus(status);
+        where.setRead(read);
+        where.setOlderThanDays(olderThanDays);
+        return where;
+    }
+}
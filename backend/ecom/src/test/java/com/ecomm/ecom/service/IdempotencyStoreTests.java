@@ -0,0 +1,178 @@
+package com.ecomm.ecom.service;
+
+import com.ecomm.ecom.dto.ContactRequest;
+import com.ecomm.ecom.exception.IdempotencyConflictException;
+import com.ecomm.ecom.model.ContactMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTests {
+
+    private final ManualClock clock = new ManualClock();
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 3, 60, 120, clock);
+
+    @Test
+    void replaysAKeyWithinItsWindow() {
+        IdempotencyStore.Outcome first = store.execute("key-1", request("hello"), this::submit);
+        clock.advance(Duration.ofMinutes(59));
+        IdempotencyStore.Outcome second = store.execute("key-1", request("hello"), this::submit);
+
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals(first.getReceipt().getReferenceCode(), second.getReceipt().getReferenceCode());
+        assertEquals(1, submitted.get());
+    }
+
+    @Test
+    void submitsAgainOnceTheKeyExpires() {
+        store.execute("key-1", request("hello"), this::submit);
+        clock.advance(Duration.ofMinutes(60));
+        IdempotencyStore.Outcome again = store.execute("key-1", request("hello"), this::submit);
+
+        assertFalse(again.isReplayed());
+        assertEquals(2, submitted.get());
+    }
+
+    @Test
+    void matchesRequestsWithoutAKeyOnContentForTheShorterWindow() {
+        store.execute(null, request("hello"), this::submit);
+        IdempotencyStore.Outcome retry = store.execute(" ", request("  hello "), this::submit);
+        store.execute(null, request("something else"), this::submit);
+        assertTrue(retry.isReplayed());
+        assertEquals(2, submitted.get());
+
+        clock.advance(Duration.ofSeconds(120));
+        assertFalse(store.execute(null, request("hello"), this::submit).isReplayed());
+        assertEquals(3, submitted.get());
+    }
+
+    @Test
+    void ignoresNullProductIds() {
+        ContactRequest withNull = request("hello");
+        withNull.setProductIds(Arrays.asList(1, null, 2));
+        store.execute(null, request("hello"), this::submit);
+        assertTrue(store.execute(null, withNull, this::submit).isReplayed());
+
+        ContactRequest onlyNull = request("only null");
+        onlyNull.setProductIds(Arrays.asList((Integer) null));
+        assertFalse(store.execute(null, onlyNull, this::submit).isReplayed());
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        store.execute("key-1", request("hello"), this::submit);
+        assertThrows(IdempotencyConflictException.class,
+                () -> store.execute("key-1", request("goodbye"), this::submit));
+    }
+
+    @Test
+    void forgetsFailedSubmissions() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key-1", request("hello"), () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertFalse(store.execute("key-1", request("hello"), this::submit).isReplayed());
+    }
+
+    @Test
+    void evictsTheEldestFinishedEntryWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            store.execute("key-" + i, request("hello"), this::submit);
+        }
+        assertFalse(store.execute("key-0", request("hello"), this::submit).isReplayed());
+        assertTrue(store.execute("key-3", request("hello"), this::submit).isReplayed());
+    }
+
+    @Test
+    void neverEvictsASubmissionStillRunning() throws Exception {
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<IdempotencyStore.Outcome>> running = List.of(
+                runAsync("slow-0", started, release),
+                runAsync("slow-1", started, release),
+                runAsync("slow-2", started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        clock.advance(Duration.ofHours(2));
+        assertThrows(TaskRejectedException.class, () -> store.execute("key-4", request("hello"), this::submit));
+
+        release.countDown();
+        for (CompletableFuture<IdempotencyStore.Outcome> outcome : running) {
+            assertFalse(outcome.get(5, TimeUnit.SECONDS).isReplayed());
+        }
+        assertFalse(store.execute("key-4", request("hello"), this::submit).isReplayed());
+    }
+
+    private CompletableFuture<IdempotencyStore.Outcome> runAsync(String key, CountDownLatch started,
+                                                                  CountDownLatch release) {
+        Supplier<ContactMessage> slow = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return submit();
+        };
+        return CompletableFuture.supplyAsync(() -> store.execute(key, request("hello"), slow));
+    }
+
+    private ContactMessage submit() {
+        ContactMessage message = new ContactMessage();
+        message.setId((long) submitted.incrementAndGet());
+        message.setReferenceCode("SE-20240101-000" + submitted.get());
+        return message;
+    }
+
+    private static ContactRequest request(String message) {
+        ContactRequest request = new ContactRequest();
+        request.setName("Test");
+        request.setEmail("test@example.com");
+        request.setMessage(message);
+        request.setProductIds(List.of(2, 1));
+        return request;
+    }
+
+    private static final class ManualClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecomm.ecom.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Same cases as categorizeProduct() in frontend/src/components/Products.jsx. */
+class ProductCategorizerTests {
+
+    private final ProductCategorizer categorizer = new ProductCategorizer();
+
+    @Test
+    void keysAreInStorefrontOrder() {
+        assertEquals(List.of("lighting", "fans", "switches", "cables", "accessories"),
+                List.copyOf(categorizer.keys()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "Lighting, lighting",
+            "  LIGHTS , lighting",
+            "Ceiling Fans, fans",
+            "Switches & Sockets, switches",
+            "House Wiring, cables",
+            "wires, cables",
+            "Other, accessories",
+            // Checked in storefront order, so a light category with 'fan' in it stays lighting
+            "Fan Lights, lighting",
+    })
+    void explicitCategoryWins(String category, String expected) {
+        assertEquals(expected, categorizer.categorize(category, "Copper Cable", null));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "LED Ceiling Fan, , fans",
+            "Exhaust unit, for ventilation, fans",
+            "Modular plate, , switches",
+            "LED Dimmer, , switches",
+            "Flex 1.5mm, , cables",
+            "Copper conductor, , cables",
+            "LED Bulb 9W, , lighting",
+            "Crystal Chandelier, , lighting",
+            "MCB 32A, , accessories",
+            "Junction Box, , accessories",
+            "Widget, , accessories",
+    })
+    void keywordsDecideWithoutACategory(String name, String description, String expected) {
+        assertEquals(expected, categorizer.categorize(null, name, description));
+        assertEquals(expected, categorizer.categorize("  ", name, description));
+    }
+
+    @Test
+    void checksSpecificCategoriesBeforeLighting() {
+        // 'led' would make these lighting if lighting were checked first
+        assertEquals("switches", categorizer.categorize(null, "LED Switch Board", null));
+        assertEquals("cables", categorizer.categorize(null, "LED Strip", "with power cable"));
+    }
+
+    @Test
+    void unknownCategoryFallsBackToKeywords() {
+        assertEquals("fans", categorizer.categorize("Seasonal", "Pedestal Fan", null));
+        assertEquals(ProductCategorizer.DEFAULT_KEY, categorizer.categorize(null, null, null));
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecomm.ecom.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReferenceCodeGeneratorTests {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int PREFIX_LENGTH = "SE-YYYYMMDD-".length();
+
+    @Test
+    void scrambleIsABijectionOnEveryWidth() {
+        for (int bits : new int[] {15, 20}) {
+            BitSet seen = new BitSet(1 << bits);
+            for (long value = 0; value < 1L << bits; value++) {
+                long code = ReferenceCodeGenerator.scramble(value, bits, 0x5DEECE66DL);
+                assertTrue(code >= 0 && code < 1L << bits, "out of range for " + value);
+                assertFalse(seen.get((int) code), "collision at " + value);
+                seen.set((int) code);
+            }
+        }
+    }
+
+    @Test
+    void scrambleDoesNotHandOutConsecutiveCodes() {
+        long first = ReferenceCodeGenerator.scramble(0, 15, 42);
+        long second = ReferenceCodeGenerator.scramble(1, 15, 42);
+        assertTrue(Math.abs(second - first) > 1);
+    }
+
+    @Test
+    void codesAreUniqueAndWidenPastTheThreeCharacterRange() {
+        ReferenceCodeGenerator generator = generator(1024);
+        String prefix = "SE-" + LocalDate.now().toString().replace("-", "") + "-";
+
+        Set<String> codes = new HashSet<>();
+        String code = null;
+        for (int i = 0; i < 32768; i++) {
+            code = generator.next();
+            assertTrue(code.startsWith(prefix), code);
+            assertEquals(PREFIX_LENGTH + 4, code.length(), code);
+            assertTrue(ReferenceCodeGenerator.hasValidCheckChar(code), code);
+            assertTrue(codes.add(code), "duplicate " + code);
+        }
+
+        String wider = generator.next();
+        assertEquals(PREFIX_LENGTH + 5, wider.length(), wider);
+        assertTrue(ReferenceCodeGenerator.hasValidCheckChar(wider), wider);
+    }
+
+    @Test
+    void checkCharRejectsEverySingleCharacterError() {
+        for (String code : sampleCodes()) {
+            char[] chars = code.toCharArray();
+            for (int i = PREFIX_LENGTH; i < chars.length; i++) {
+                char original = chars[i];
+                for (char replacement : ALPHABET.toCharArray()) {
+                    if (replacement != original) {
+                        chars[i] = replacement;
+                        assertFalse(ReferenceCodeGenerator.hasValidCheckChar(new String(chars)),
+                                code + " -> " + new String(chars));
+                    }
+                }
+                chars[i] = original;
+            }
+        }
+    }
+
+    @Test
+    void checkCharRejectsAdjacentTranspositions() {
+        int swaps = 0;
+        for (String code : sampleCodes()) {
+            for (int i = PREFIX_LENGTH; i < code.length() - 1; i++) {
+                char a = code.charAt(i);
+                char b = code.charAt(i + 1);
+                // Like Luhn's 09/90, mod 32 cannot see the first and last digit trade places
+                if (a == b || (a == '0' && b == 'Z') || (a == 'Z' && b == '0')) {
+                    continue;
+                }
+                char[] chars = code.toCharArray();
+                chars[i] = b;
+                chars[i + 1] = a;
+                assertFalse(ReferenceCodeGenerator.hasValidCheckChar(new String(chars)),
+                        code + " -> " + new String(chars));
+                swaps++;
+            }
+        }
+        assertTrue(swaps > 1000);
+    }
+
+    @Test
+    void malformedCodesAreRejected() {
+        assertFalse(ReferenceCodeGenerator.hasValidCheckChar("SE-20240101-AB"));
+        assertFalse(ReferenceCodeGenerator.hasValidCheckChar("SE-20240101-ABCU"));
+        assertFalse(ReferenceCodeGenerator.hasValidCheckChar("SE-20240101-abcd"));
+    }
+
+    private static List<String> sampleCodes() {
+        ReferenceCodeGenerator generator = generator(32);
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            codes.add(generator.next());
+        }
+        return codes;
+    }
+
+    // contact_reference_counter stand-in: each call reserves the next block
+    private static ReferenceCodeGenerator generator(int blockSize) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        AtomicLong counter = new AtomicLong();
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any()))
+                .thenAnswer(invocation -> counter.addAndGet(blockSize));
+        return new ReferenceCodeGenerator(jdbcTemplate, mock(PlatformTransactionManager.class), blockSize, "test");
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecomm.ecom.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpellingDictionaryTests {
+
+    private final SpellingDictionary dictionary = SpellingDictionary.build(List.of(
+            "LED Ceiling Light", "Exhaust Fan", "Copper Cable 2.5mm", "Battery Cell", "Modular Switch Board"));
+
+    @Test
+    void collectsAlphabeticWordsOfThreeOrMoreLetters() {
+        // led, ceiling, light, exhaust, fan, copper, cable, battery, cell, modular, switch, board
+        assertEquals(12, dictionary.size());
+    }
+
+    @Test
+    void correctsWithinOneEdit() {
+        assertEquals("cable", dictionary.correct("cabel"));
+        assertEquals("light", dictionary.correct("ligt"));
+        assertEquals("switch", dictionary.correct("swich"));
+        assertEquals("ceiling", dictionary.correct("cieling"));
+    }
+
+    @Test
+    void correctsWithinTwoEditsForLongWords() {
+        assertEquals("battery", dictionary.correct("battteryy"));
+        // Shorter words get one edit only
+        assertEquals("cabbel", dictionary.correct("cabbel"));
+    }
+
+    @Test
+    void leavesKnownShortAndNumericTermsAlone() {
+        assertEquals("copper", dictionary.correct("copper"));
+        assertEquals("fam", dictionary.correct("fam"));
+        assertEquals("25mm", dictionary.correct("25mm"));
+        assertEquals("zzzzzz", dictionary.correct("zzzzzz"));
+    }
+
+    @Test
+    void andsCorrectedTermsAndMatchesTheLastAsAPrefix() {
+        assertEquals("copper & cable:*", dictionary.toTsQuery("Copper Cable"));
+        assertEquals("ceiling & light:*", dictionary.toTsQuery("cieling light"));
+    }
+
+    @Test
+    void keepsTheTypedPrefixWhenCorrectingTheLastTerm() {
+        assertEquals("led & (ceil:* | cell:*)", dictionary.toTsQuery("led ceil"));
+        assertEquals("copper & (cabel:* | cable:*)", dictionary.toTsQuery("copper cabel"));
+    }
+
+    @Test
+    void dropsTsQueryOperators() {
+        assertEquals("light & fan:*", dictionary.toTsQuery("light & | !fan:*"));
+        assertNull(dictionary.toTsQuery(" &|!() "));
+    }
+}
@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import emailjs from '@emailjs/browser';
 import { sendContactMessage, getProducts } from '../services/api';
 
@@ -17,6 +17,9 @@ function CallToAction({ preSelectedProducts = [] }) {
   const [showProductSelector, setShowProductSelector] = useState(false);
   const [productSearch, setProductSearch] = useState('');
   const [selectedCategory, setSelectedCategory] = useState('all');
+  // Idempotency key of the last unsuccessful attempt, reused when the same
+  // inquiry is submitted again so a retry never creates a second one
+  const pendingSubmit = useRef(null);
 
   useEffect(() => {
     // Fetch products for selection
@@ -101,14 +104,21 @@ function CallToAction({ preSelectedProducts = [] }) {
 
     setIsLoading(true);
 
+    const inquiry = {
+      name: formData.name,
+      email: formData.email,
+      phone: formData.phone || null,
+      message: formData.message,
+      productIds: selectedProducts.length > 0 ? selectedProducts : null
+    };
+    const payload = JSON.stringify(inquiry);
+    if (!pendingSubmit.current || pendingSubmit.current.payload !== payload) {
+      pendingSubmit.current = { payload, key: crypto.randomUUID() };
+    }
+
     try {
-      const response = await sendContactMessage({
-        name: formData.name,
-        email: formData.email,
-        phone: formData.phone || null,
-        message: formData.message,
-        productIds: selectedProducts.length > 0 ? selectedProducts : null
-      });
+      const response = await sendContactMessage(inquiry, pendingSubmit.current.key);
+      pendingSubmit.current = null;
 
       const refCode = response.referenceCode;
       const productNames = getSelectedProductNames().join(', ') || 'None';
@@ -149,7 +149,12 @@ const CATEGORIES = {
 
 // Helper function to categorize products
 function categorizeProduct(product) {
-  // First priority: Check explicit category field
+  // Backend assigns a normalized category key when the product is saved
+  if (product.categoryKey && CATEGORIES[product.categoryKey]) {
+    return product.categoryKey;
+  }
+
+  // Fallback for older API responses: Check explicit category field
   if (product.category) {
     const productCategory = product.category.toLowerCase().trim();
     for (const [categoryKey, category] of Object.entries(CATEGORIES)) {
@@ -240,6 +240,7 @@ const CATEGORIES = {
 };
 
 function categorizeProduct(product) {
+  if (product.categoryKey && CATEGORIES[product.categoryKey]) return product.categoryKey;
   if (product.category) {
     const pc = product.category.toLowerCase().trim();
     for (const [ck, cat] of Object.entries(CATEGORIES)) {
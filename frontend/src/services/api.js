@@ -8,12 +8,16 @@ export async function getProducts() {
   return res.json();
 }
 
-export async function sendContactMessage({ name, email, phone, message, productIds }) {
+// Pass the same idempotencyKey when retrying a submission: the server then
+// returns the original reference code instead of recording it twice.
+export async function sendContactMessage({ name, email, phone, message, productIds }, idempotencyKey) {
+  const headers = { 'Content-Type': 'application/json' };
+  if (idempotencyKey) {
+    headers['Idempotency-Key'] = idempotencyKey;
+  }
   const res = await fetch(`${BASE_URL}/contact`, {
     method: 'POST',
-    headers: {
-      'Content-Type': 'application/json',
-    },
+    headers,
     body: JSON.stringify({ name, email, phone, message, productIds }),
   });
 